@@ -0,0 +1,77 @@
+package com.example.circularpb;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the progress gradient is built once and only re-oriented afterwards.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GradientShaderTest {
+
+    private static final int SIZE_PX = 300;
+    private static final long ANIMATION_TIMEOUT_MILLIS = 5_000;
+
+    @Test
+    public void animatingProgress_buildsNoShader() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        final CircularProgressDrawable drawable = new CircularProgressDrawable(context.getResources());
+        final Canvas canvas = new Canvas(Bitmap.createBitmap(SIZE_PX, SIZE_PX, Bitmap.Config.ARGB_8888));
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                drawable.setBounds(0, 0, SIZE_PX, SIZE_PX);
+                drawable.setProgressGradient(new int[]{0xFF2196F3, 0xFF4CAF50, 0xFFFFC107}, null);
+                drawable.setMetricsEnabled(true);
+
+                drawable.setAnimationEnabled(true);
+                drawable.setProgress(80, 100);
+                drawable.setStartAngle(90);
+                drawable.setDirection(CustomProgressBar.DIRECTION_CLOCKWISE);
+                drawable.setProgressStrokeWidthPx(20);
+            }
+        });
+
+        final boolean[] running = {true};
+        long deadline = SystemClock.uptimeMillis() + ANIMATION_TIMEOUT_MILLIS;
+        while (running[0] && SystemClock.uptimeMillis() < deadline) {
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    drawable.draw(canvas);
+                    running[0] = drawable.isProgressAnimationRunning();
+                }
+            });
+            SystemClock.sleep(16);
+        }
+
+        ProgressBarMetrics metrics = drawable.getMetrics();
+        assertFalse("animation did not finish", running[0]);
+        assertTrue(metrics.getAnimationFrames() > 0);
+        assertEquals(0, metrics.getShadersBuilt());
+    }
+
+    @Test
+    public void movingTheCentre_rebuildsShader() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        CircularProgressDrawable drawable = new CircularProgressDrawable(context.getResources());
+        drawable.setBounds(0, 0, SIZE_PX, SIZE_PX);
+        drawable.setProgressGradient(new int[]{0xFF2196F3, 0xFF4CAF50}, new float[]{0f, 1f});
+        drawable.setMetricsEnabled(true);
+
+        drawable.setBounds(0, 0, SIZE_PX * 2, SIZE_PX * 2);
+
+        assertEquals(1, drawable.getMetrics().getShadersBuilt());
+    }
+}
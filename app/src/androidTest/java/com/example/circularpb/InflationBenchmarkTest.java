@@ -0,0 +1,73 @@
+package com.example.circularpb;
+
+import android.content.Context;
+import android.content.res.XmlResourceParser;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.util.Xml;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.xmlpull.v1.XmlPullParser;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the cost of creating bars that parse their own attributes with bars created from one
+ * shared {@link ProgressBarStyle}. Results are written to logcat under {@value #TAG}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InflationBenchmarkTest {
+
+    private static final String TAG = "InflationBenchmark";
+    private static final int WARM_UP_COUNT = 100;
+    private static final int BAR_COUNT = 1_000;
+
+    @Test
+    public void inflationTimePerBar_attributesVsSharedStyle() throws Exception {
+        final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        final AttributeSet attrs = findProgressBarAttributes(context);
+        final long[] nanosPerBar = new long[2];
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                ProgressBarStyle style = ProgressBarStyle.fromAttributes(context, attrs);
+                for (int i = 0; i < WARM_UP_COUNT; i++) {
+                    new CustomProgressBar(context, attrs);
+                    new CustomProgressBar(context, style);
+                }
+
+                long start = System.nanoTime();
+                for (int i = 0; i < BAR_COUNT; i++) {
+                    new CustomProgressBar(context, attrs);
+                }
+                nanosPerBar[0] = (System.nanoTime() - start) / BAR_COUNT;
+
+                start = System.nanoTime();
+                for (int i = 0; i < BAR_COUNT; i++) {
+                    new CustomProgressBar(context, style);
+                }
+                nanosPerBar[1] = (System.nanoTime() - start) / BAR_COUNT;
+            }
+        });
+
+        Log.i(TAG, "per bar, parsing attributes: " + nanosPerBar[0] + " ns, shared style: " + nanosPerBar[1] + " ns");
+        assertTrue(nanosPerBar[0] > 0);
+        assertTrue(nanosPerBar[1] > 0);
+    }
+
+    private static AttributeSet findProgressBarAttributes(Context context) throws Exception {
+        XmlResourceParser parser = context.getResources().getLayout(R.layout.activity_main);
+        int type;
+        while ((type = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            if (type == XmlPullParser.START_TAG && CustomProgressBar.class.getName().equals(parser.getName())) {
+                return Xml.asAttributeSet(parser);
+            }
+        }
+        throw new AssertionError("activity_main has no CustomProgressBar");
+    }
+}
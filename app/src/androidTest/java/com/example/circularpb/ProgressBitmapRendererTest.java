@@ -0,0 +1,72 @@
+package com.example.circularpb;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class ProgressBitmapRendererTest {
+
+    private static final int SIZE_PX = 128;
+
+    @Test
+    public void render_drawsProgressOffTheMainThread() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ProgressBitmapRenderer renderer = new ProgressBitmapRenderer(ProgressBarStyle.getDefault(context.getResources()));
+
+        Bitmap bitmap = renderer.render(50, 100, SIZE_PX, SIZE_PX);
+
+        assertEquals(SIZE_PX, bitmap.getWidth());
+        // default start angle is at the top, so the ring passes through the top centre
+        assertNotEquals(Color.TRANSPARENT, bitmap.getPixel(SIZE_PX / 2, SIZE_PX / 20));
+    }
+
+    @Test
+    public void render_neverAnimates_evenWithAnAnimatedStyle() throws InterruptedException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        final ProgressBitmapRenderer renderer = new ProgressBitmapRenderer(ProgressBarStyle.getDefault(context.getResources()));
+        renderer.getDrawable().applyStyle(new ProgressBarStyle.Builder(context.getResources())
+                .setAnimationEnabled(true)
+                .build());
+
+        // a thread without a looper, where the frame clock's Choreographer would throw
+        final Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    renderer.render(25, 100, SIZE_PX, SIZE_PX);
+                    renderer.render(75, 100, SIZE_PX, SIZE_PX);
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertNull(failure[0]);
+        assertFalse(renderer.getDrawable().isProgressAnimationRunning());
+        assertEquals(75.0, renderer.getDrawable().getProgress(), 0);
+    }
+
+    @Test
+    public void releasedBitmap_isReusedForTheSameSize() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ProgressBitmapRenderer renderer = new ProgressBitmapRenderer(ProgressBarStyle.getDefault(context.getResources()));
+
+        Bitmap first = renderer.render(10, 100, SIZE_PX, SIZE_PX);
+        renderer.release(first);
+
+        assertSame(first, renderer.render(20, 100, SIZE_PX, SIZE_PX));
+        assertNotSame(first, renderer.render(20, 100, SIZE_PX * 2, SIZE_PX * 2));
+    }
+}
@@ -0,0 +1,1979 @@
+package com.example.circularpb;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.SweepGradient;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.Dimension;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Draws and animates the circular progress ring.
+ * <p>
+ * {@link CustomProgressBar} delegates all drawing to this class. It can also be set directly on
+ * an ImageView or as a compound drawable of a TextView, so list items can show a ring without
+ * inflating an extra view; a bound item only needs {@link #setProgress(double, double)}.
+ */
+public class CircularProgressDrawable extends Drawable {
+
+    //region paint
+    private final Paint progressPaint;
+    private final Paint progressBackgroundPaint;
+    private final Paint dotPaint;
+    @Nullable
+    private Paint segmentPaint;
+    @Nullable
+    private Paint labelPaint;
+    @Nullable
+    private Paint tickPaint;
+    //endregion
+
+    private static final int ANGLE_START_PROGRESS_BACKGROUND = 0;
+    private static final int ANGLE_END_PROGRESS_BACKGROUND = 360;
+    private static final int DEFAULT_ANIMATION_DURATION = 1_000;
+    private static final float MIN_ARC_LENGTH_CHANGE_PX = .5f;
+    private static final int ANTI_ALIAS_PADDING_PX = 1;
+    private static final int INDETERMINATE_SWEEP_ANGLE = 90;
+    private static final long INDETERMINATE_TURN_NANOS = 1_000 * 1_000_000L;
+    private static final long START_TIME_PENDING = -1L;
+    // the default 8dp stroke gives a 48dp bar, the size of a regular icon touch target
+    private static final int INTRINSIC_SIZE_PER_STROKE = 6;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long FRAME_INTERVAL_NANOS = 16_666_667L;
+    private static final float DEFAULT_SPRING_STIFFNESS = 200f;
+    private static final float DEFAULT_SPRING_DAMPING_RATIO = 1f;
+    private int startAngle = ProgressBarStyle.DEFAULT_PROGRESS_START_ANGLE;
+    private float sweepAngle = 0;
+    private float drawnSweepAngle = 0;
+    private final RectF circleBounds = new RectF();
+    private final float[] circleBoundsValues = new float[4];
+    private final ProgressGeometry geometry = new ProgressGeometry();
+    private float radius;
+    private boolean shouldDrawDot = true;
+    private double maxProgressValue = 100.0;
+    private double progressValue = 0.0;
+    private boolean isAnimationEnabled;
+    private boolean isAnimationSuppressed;
+    private boolean isFillBackgroundEnabled;
+    private boolean isBackgroundCacheEnabled;
+    private boolean isIndeterminate;
+    private int alpha = 255;
+    @ColorInt
+    private int progressColor;
+    @ColorInt
+    private int progressBackgroundColor;
+    @ColorInt
+    private int dotColor;
+
+    //region cached background ring
+    @Nullable
+    private Bitmap backgroundCache;
+    @Nullable
+    private Canvas backgroundCacheCanvas;
+    private boolean isBackgroundCacheValid;
+    //endregion
+
+    //region track shape, the circle is drawn with drawArc when none is set
+    @Nullable
+    private TrackShape trackShape;
+    private final Path trackPath = new Path();
+    private final PathMeasure trackMeasure = new PathMeasure();
+    private float trackLength;
+    // reused for the part of the track drawn each frame
+    private final Path trackSegmentPath = new Path();
+    private final float[] trackPosition = new float[2];
+    //endregion
+
+    //region tick marks, endpoints precomputed as x0, y0, x1, y1 per tick
+    private static final int TICK_COORDINATES = 4;
+    @ColorInt
+    private static final int DEFAULT_TICK_COLOR = 0xFFBDBDBD;
+    private int majorTickCount;
+    private int minorTicksPerMajor;
+    private int majorTickLength; // 0 follows the progress stroke width
+    private int minorTickLength;
+    private int tickWidth;
+    private int tickGap;
+    @ColorInt
+    private int tickColor = DEFAULT_TICK_COLOR;
+    @ColorInt
+    private int tickHighlightColor = DEFAULT_TICK_COLOR;
+    private float[] tickLines = new float[0];
+    private int tickCount;
+    private int tickIntervals;
+    private float tickInnerRadius;
+    private final float[] trackTangent = new float[2];
+    //endregion
+
+    //region gradient progress
+    @Nullable
+    private int[] gradientColors;
+    @Nullable
+    private float[] gradientPositions;
+    @Nullable
+    private SweepGradient progressShader;
+    private float progressShaderCenterX;
+    private float progressShaderCenterY;
+    private final Matrix progressShaderMatrix = new Matrix();
+    //endregion
+
+    //region dirty region of sweep changes
+    private final Rect dirtyRect = new Rect();
+    private final float[] arcBounds = new float[4];
+    private boolean isSweepInvalidation;
+    //endregion
+
+    //region centre label
+    private static final float LABEL_AUTO_TEXT_SIZE_RATIO = .4f;
+    @CustomProgressBar.LabelMode
+    private int labelMode = CustomProgressBar.LABEL_NONE;
+    @ColorInt
+    private int labelColor = ProgressBarStyle.DEFAULT_LABEL_COLOR;
+    private int labelTextSize; // 0 scales the text with the ring
+    @Nullable
+    private LabelFormatter labelFormatter;
+    private final Paint.FontMetrics labelFontMetrics = new Paint.FontMetrics();
+    // measured once per text size, mode or max change instead of on every draw
+    private float labelBaselineOffset;
+    private float labelWidth;
+    private float labelHeight;
+    private final Rect labelDirtyRect = new Rect();
+    private final char[] labelChars = new char[LabelText.VALUE_BUFFER_SIZE];
+    private int labelCharCount;
+    private long labelCharsValue = -1;
+    @Nullable
+    private CharSequence customLabel;
+    private long customLabelKey;
+    private long drawnLabelKey = Long.MIN_VALUE;
+    //endregion
+
+    @Nullable
+    private ProgressBarMetrics metrics;
+
+    private final SweepAnimation sweepAnimation = new SweepAnimation();
+    private final ProgressAnimationClock.FrameClient animationFrameClient = new ProgressAnimationClock.FrameClient() {
+        @Override
+        void onAnimationFrame(long frameTimeNanos) {
+            boolean running = sweepAnimation.step(frameTimeNanos);
+            setSweepAngle(sweepAnimation.getValue());
+            dispatchAnimatedProgress(frameTimeNanos, !running);
+            if (metrics != null) metrics.animationFrames++;
+            if (!running) {
+                ProgressAnimationClock.getInstance().remove(this);
+                if (metrics != null) metrics.animationsCompleted++;
+            }
+        }
+    };
+
+    //region indeterminate spinner, only the arc turns while track, ticks and shape stay put
+    private float indeterminateRotation;
+    private long indeterminateStartNanos = START_TIME_PENDING;
+    private final ProgressAnimationClock.FrameClient indeterminateFrameClient = new ProgressAnimationClock.FrameClient() {
+        @Override
+        void onAnimationFrame(long frameTimeNanos) {
+            if (indeterminateStartNanos == START_TIME_PENDING) {
+                // a resumed spinner continues from where it stopped
+                indeterminateStartNanos = frameTimeNanos - (long) (indeterminateRotation / 360f * INDETERMINATE_TURN_NANOS);
+            }
+            long turnNanos = (frameTimeNanos - indeterminateStartNanos) % INDETERMINATE_TURN_NANOS;
+            indeterminateRotation = 360f * turnNanos / INDETERMINATE_TURN_NANOS;
+            invalidateSelf();
+            if (metrics != null) metrics.animationFrames++;
+        }
+    };
+    //endregion
+
+    //region timer, sweep derived from the frame time instead of setProgress calls
+    @CustomProgressBar.TimerMode
+    private int timerMode = CustomProgressBar.TIMER_ELAPSED;
+    private long timerStartNanos;
+    private long timerDurationNanos;
+    private boolean isTimerRunning;
+    @Nullable
+    private OnTimerCompleteListener onTimerCompleteListener;
+    private final ProgressAnimationClock.FrameClient timerFrameClient = new ProgressAnimationClock.FrameClient() {
+        @Override
+        void onAnimationFrame(long frameTimeNanos) {
+            updateTimer(frameTimeNanos);
+            if (metrics != null) metrics.animationFrames++;
+        }
+    };
+    // completes a timer whose drawable is hidden and therefore gets no frames
+    private final Runnable timerCompletion = new Runnable() {
+        @Override
+        public void run() {
+            updateTimer(System.nanoTime());
+        }
+    };
+    // not scheduleSelf: without a callback it drops the runnable, and a detached view only
+    // runs it once reattached
+    @Nullable
+    private Handler timerHandler;
+    //endregion
+
+    //region milestones, thresholds in progress units crossed by the drawn progress
+    private static final OnMilestoneListener[] NO_MILESTONE_LISTENERS = new OnMilestoneListener[0];
+    // absorbs the float rounding of progress to sweep and back, relative to the max
+    private static final double MILESTONE_TOLERANCE = 1e-6;
+    @Nullable
+    private double[] milestones;
+    @Nullable
+    private int[] milestoneColors;
+    private int milestoneLevel; // number of thresholds at or below the drawn progress
+    private OnMilestoneListener[] milestoneListeners = NO_MILESTONE_LISTENERS;
+    //endregion
+
+    //region segments drawn in place of the single progress arc
+    @Nullable
+    private double[] segmentValues;
+    @Nullable
+    private int[] segmentColors;
+    @Nullable
+    private float[] segmentSweeps;
+    @Nullable
+    private SweepAnimation[] segmentAnimations;
+    private final ProgressAnimationClock.FrameClient segmentFrameClient = new ProgressAnimationClock.FrameClient() {
+        @Override
+        void onAnimationFrame(long frameTimeNanos) {
+            boolean running = false;
+            for (int i = 0; i < segmentAnimations.length; i++) {
+                SweepAnimation animation = segmentAnimations[i];
+                if (animation.isRunning()) {
+                    boolean isSegmentRunning = animation.step(frameTimeNanos);
+                    segmentSweeps[i] = animation.getValue();
+                    running |= isSegmentRunning;
+                    if (!isSegmentRunning && metrics != null) metrics.animationsCompleted++;
+                }
+            }
+            invalidateSelf();
+            if (metrics != null) metrics.animationFrames++;
+            if (!running) {
+                ProgressAnimationClock.getInstance().remove(this);
+            }
+        }
+    };
+    //endregion
+
+    //region animated progress listeners
+    private static final OnAnimatedProgressListener[] NO_LISTENERS = new OnAnimatedProgressListener[0];
+    // copied on add and remove so dispatching never allocates and tolerates changes mid dispatch
+    private OnAnimatedProgressListener[] animatedProgressListeners = NO_LISTENERS;
+    private long animatedProgressMinIntervalNanos;
+    private double animatedProgressMinStep;
+    private long lastAnimatedProgressDispatchNanos;
+    private double lastDispatchedAnimatedProgress = Double.NaN;
+    //endregion
+
+    @CustomProgressBar.Direction
+    private int direction = CustomProgressBar.DIRECTION_COUNTERCLOCKWISE;
+
+    @NonNull
+    private Interpolator animationInterpolator = new AccelerateDecelerateInterpolator();
+
+    @CustomProgressBar.AnimationMode
+    private int animationMode = CustomProgressBar.ANIMATION_TWEEN;
+    private float springStiffness = DEFAULT_SPRING_STIFFNESS;
+    private float springDampingRatio = DEFAULT_SPRING_DAMPING_RATIO;
+
+    public CircularProgressDrawable(@NonNull Resources resources) {
+        this(ProgressBarStyle.getDefault(resources));
+    }
+
+    public CircularProgressDrawable(@NonNull ProgressBarStyle style) {
+        progressPaint = new Paint();
+        progressPaint.setStyle(Paint.Style.STROKE);
+        progressPaint.setAntiAlias(true);
+
+        progressBackgroundPaint = new Paint();
+        progressBackgroundPaint.setAntiAlias(true);
+
+        dotPaint = new Paint();
+        dotPaint.setStrokeCap(Paint.Cap.ROUND);
+        dotPaint.setStyle(Paint.Style.FILL_AND_STROKE);
+        dotPaint.setAntiAlias(true);
+
+        applyStyle(style);
+    }
+
+    /**
+     * Reconfigures the existing paints from a shared style, recalculating the bounds once.
+     */
+    public void applyStyle(@NonNull ProgressBarStyle style) {
+        progressColor = style.getProgressColor();
+        progressBackgroundColor = style.getProgressBackgroundColor();
+        dotColor = style.getDotColor();
+        applyProgressColors();
+        progressBackgroundPaint.setColor(applyAlpha(progressBackgroundColor));
+
+        progressPaint.setStrokeWidth(style.getProgressStrokeWidth());
+        progressPaint.setStrokeCap((style.getProgressStrokeCap() == CustomProgressBar.CAP_ROUND) ? Paint.Cap.ROUND : Paint.Cap.BUTT);
+        progressBackgroundPaint.setStrokeWidth(style.getProgressBackgroundStrokeWidth());
+        dotPaint.setStrokeWidth(style.getDotWidth());
+
+        isFillBackgroundEnabled = style.isFillBackgroundEnabled();
+        progressBackgroundPaint.setStyle(isFillBackgroundEnabled ? Paint.Style.FILL_AND_STROKE : Paint.Style.STROKE);
+
+        shouldDrawDot = style.isDotEnabled();
+        startAngle = style.getStartAngle();
+        updateDirection(style.getDirection());
+        setBackgroundCacheEnabled(style.isBackgroundCacheEnabled());
+        setAnimationEnabled(style.isAnimationEnabled());
+        setIndeterminate(style.isIndeterminate());
+
+        labelColor = style.getLabelColor();
+        labelTextSize = style.getLabelTextSize();
+        labelMode = style.getLabelMode();
+        configureLabelPaint();
+
+        invalidateBounds();
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        long drawStartNanos = (metrics != null) ? System.nanoTime() : 0;
+
+        drawnSweepAngle = sweepAngle;
+        drawProgressBackground(canvas);
+        if (tickCount > 0) drawTicks(canvas);
+        drawProgress(canvas);
+        if (shouldDrawDot && segmentSweeps == null && !isIndeterminate) drawDot(canvas);
+        if (isLabelVisible()) drawLabel(canvas);
+
+        if (metrics != null) {
+            metrics.drawCount++;
+            metrics.drawTimeNanos += System.nanoTime() - drawStartNanos;
+        }
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        calculateBounds();
+    }
+
+    /**
+     * Returns only the changed part of the ring while a sweep change is being invalidated, so
+     * the hosting view repaints just that region.
+     */
+    @NonNull
+    @Override
+    public Rect getDirtyBounds() {
+        return isSweepInvalidation ? dirtyRect : getBounds();
+    }
+
+    /**
+     * Counts every invalidation, whole or limited to a sweep change, while metrics are enabled.
+     */
+    @Override
+    public void invalidateSelf() {
+        if (metrics != null) metrics.invalidationCount++;
+        super.invalidateSelf();
+    }
+
+    /**
+     * Finishes a running progress animation, jumping to its target value.
+     */
+    @Override
+    public void jumpToCurrentState() {
+        stopProgressAnimation();
+    }
+
+    /**
+     * Hidden drawables do not animate: running animations jump to their targets and new
+     * values are applied at once until the drawable is visible again.
+     */
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        boolean changed = super.setVisible(visible, restart);
+        if (!visible) suspendAnimations();
+        updateIndeterminateAnimation();
+        if (isTimerRunning) scheduleTimer();
+        return changed;
+    }
+
+    @Override
+    public void setAlpha(@IntRange(from = 0, to = 255) int alpha) {
+        this.alpha = alpha;
+        applyProgressColors();
+        progressBackgroundPaint.setColor(applyAlpha(progressBackgroundColor));
+        if (labelPaint != null) labelPaint.setColor(applyAlpha(labelColor));
+        isBackgroundCacheValid = false;
+        invalidateSelf();
+    }
+
+    @Override
+    public int getAlpha() {
+        return alpha;
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        progressPaint.setColorFilter(colorFilter);
+        if (segmentPaint != null) segmentPaint.setColorFilter(colorFilter);
+        if (labelPaint != null) labelPaint.setColorFilter(colorFilter);
+        if (tickPaint != null) tickPaint.setColorFilter(colorFilter);
+        progressBackgroundPaint.setColorFilter(colorFilter);
+        dotPaint.setColorFilter(colorFilter);
+        isBackgroundCacheValid = false;
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    /**
+     * Scales with the widest stroke, so a {@code wrap_content} ImageView or a compound
+     * drawable shows the ring at a size its stroke suits.
+     */
+    @Override
+    public int getIntrinsicWidth() {
+        return (int) Math.ceil(getStrokeSizeOffset() * INTRINSIC_SIZE_PER_STROKE);
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return getIntrinsicWidth();
+    }
+
+    //region draw methods
+    private void drawProgressBackground(Canvas canvas) {
+        Rect bounds = getBounds();
+        if (isBackgroundCacheEnabled && !bounds.isEmpty()) {
+            if (!isBackgroundCacheValid) {
+                renderBackgroundCache(bounds);
+            }
+            canvas.drawBitmap(backgroundCache, bounds.left, bounds.top, null);
+            return;
+        }
+
+        drawTrack(canvas);
+    }
+
+    private void drawTrack(Canvas canvas) {
+        if (trackShape != null) {
+            canvas.drawPath(trackPath, progressBackgroundPaint);
+        } else {
+            canvas.drawArc(circleBounds, ANGLE_START_PROGRESS_BACKGROUND, ANGLE_END_PROGRESS_BACKGROUND,
+                    false, progressBackgroundPaint);
+        }
+    }
+
+    private void renderBackgroundCache(Rect bounds) {
+        int width = bounds.width();
+        int height = bounds.height();
+        if (backgroundCache == null || backgroundCache.getWidth() != width || backgroundCache.getHeight() != height) {
+            releaseBackgroundCache();
+            backgroundCache = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            backgroundCacheCanvas = new Canvas(backgroundCache);
+        } else {
+            backgroundCache.eraseColor(Color.TRANSPARENT);
+        }
+
+        int saveCount = backgroundCacheCanvas.save();
+        backgroundCacheCanvas.translate(-bounds.left, -bounds.top);
+        drawTrack(backgroundCacheCanvas);
+        backgroundCacheCanvas.restoreToCount(saveCount);
+        isBackgroundCacheValid = true;
+    }
+
+    /**
+     * Frees the cached background bitmap, if any. It is rebuilt on the next draw when the
+     * background cache is still enabled.
+     */
+    public void releaseBackgroundCache() {
+        if (backgroundCache != null) {
+            backgroundCache.recycle();
+            backgroundCache = null;
+            backgroundCacheCanvas = null;
+        }
+        isBackgroundCacheValid = false;
+    }
+
+    /**
+     * Ticks reached by the progress form a prefix of the buffer, so at most two drawLines
+     * calls draw all of them.
+     */
+    private void drawTicks(Canvas canvas) {
+        int highlighted = 0;
+        if (tickHighlightColor != tickColor && !isIndeterminate) {
+            float fraction = getSweepFraction(sweepAngle);
+            highlighted = (fraction <= 0) ? 0 : Math.min(tickCount, (int) (fraction * tickIntervals) + 1);
+        }
+
+        if (highlighted > 0) {
+            tickPaint.setColor(applyAlpha(tickHighlightColor));
+            canvas.drawLines(tickLines, 0, highlighted * TICK_COORDINATES, tickPaint);
+        }
+        if (highlighted < tickCount) {
+            tickPaint.setColor(applyAlpha(tickColor));
+            canvas.drawLines(tickLines, highlighted * TICK_COORDINATES, (tickCount - highlighted) * TICK_COORDINATES, tickPaint);
+        }
+    }
+
+    private void drawProgress(Canvas canvas) {
+        if (isIndeterminate) {
+            boolean isCounterclockwise = direction == CustomProgressBar.DIRECTION_COUNTERCLOCKWISE;
+            int indeterminateSweep = isCounterclockwise ? -INDETERMINATE_SWEEP_ANGLE : INDETERMINATE_SWEEP_ANGLE;
+            drawProgressArc(canvas, isCounterclockwise ? -indeterminateRotation : indeterminateRotation, indeterminateSweep, progressPaint);
+            return;
+        }
+
+        if (segmentSweeps != null) {
+            drawSegments(canvas);
+            return;
+        }
+
+        drawProgressArc(canvas, 0, sweepAngle, progressPaint);
+    }
+
+    /**
+     * Draws the part of the track from {@code fromSweep} to {@code fromSweep + sweep}, both
+     * relative to the start angle. Shaped tracks copy the part into a reused path.
+     */
+    private void drawProgressArc(Canvas canvas, float fromSweep, float sweep, Paint paint) {
+        if (trackShape == null) {
+            canvas.drawArc(circleBounds, startAngle + fromSweep, sweep, false, paint);
+            return;
+        }
+
+        float fromDistance = Math.abs(fromSweep) / 360f * trackLength;
+        float toDistance = fromDistance + Math.abs(sweep) / 360f * trackLength;
+        trackSegmentPath.rewind();
+        boolean hasSegment = trackMeasure.getSegment(fromDistance, toDistance, trackSegmentPath, true);
+        if (toDistance > trackLength && trackMeasure.isClosed()) {
+            // the spinner arc runs past the end of a closed track and continues from its start
+            hasSegment |= trackMeasure.getSegment(0, toDistance - trackLength, trackSegmentPath, true);
+        }
+        if (hasSegment) {
+            // segments are not drawn by hardware rendering up to KitKat without it
+            if (Build.VERSION.SDK_INT <= Build.VERSION_CODES.KITKAT) trackSegmentPath.rLineTo(0, 0);
+            canvas.drawPath(trackSegmentPath, paint);
+        }
+    }
+
+    private void drawSegments(Canvas canvas) {
+        segmentPaint.setStrokeWidth(progressPaint.getStrokeWidth());
+
+        float segmentStartSweep = 0;
+        for (int i = 0; i < segmentSweeps.length; i++) {
+            segmentPaint.setColor(applyAlpha(segmentColors[i]));
+            drawProgressArc(canvas, segmentStartSweep, segmentSweeps[i], segmentPaint);
+            segmentStartSweep += segmentSweeps[i];
+        }
+    }
+
+    private void drawDot(Canvas canvas) {
+        if (trackShape != null) {
+            trackMeasure.getPosTan(Math.abs(sweepAngle) / 360f * trackLength, trackPosition, null);
+            canvas.drawPoint(trackPosition[0], trackPosition[1], dotPaint);
+            return;
+        }
+
+        geometry.setEndAngle(startAngle + sweepAngle);
+        canvas.drawPoint(geometry.getEndX(), geometry.getEndY(), dotPaint);
+    }
+
+    private void drawLabel(Canvas canvas) {
+        long labelKey = getLabelKey(sweepAngle);
+        drawnLabelKey = labelKey;
+        float x = circleBounds.centerX();
+        float y = circleBounds.centerY() + labelBaselineOffset;
+
+        switch (labelMode) {
+            case CustomProgressBar.LABEL_PERCENT:
+                canvas.drawText(LabelText.percent((int) labelKey), x, y, labelPaint);
+                break;
+            case CustomProgressBar.LABEL_VALUE:
+                if (labelKey != labelCharsValue) {
+                    labelCharCount = LabelText.formatValue(labelKey, Math.round(maxProgressValue), labelChars);
+                    labelCharsValue = labelKey;
+                }
+                canvas.drawText(labelChars, 0, labelCharCount, x, y, labelPaint);
+                break;
+            case CustomProgressBar.LABEL_CUSTOM:
+                if (customLabel == null || labelKey != customLabelKey) {
+                    customLabel = labelFormatter.format(labelKey, maxProgressValue);
+                    customLabelKey = labelKey;
+                }
+                if (customLabel != null) {
+                    canvas.drawText(customLabel, 0, customLabel.length(), x, y, labelPaint);
+                }
+                break;
+        }
+    }
+    //endregion
+
+    //region start and stop animation
+    private boolean canAnimate() {
+        return isAnimationEnabled && isVisible() && !isAnimationSuppressed;
+    }
+
+    /**
+     * Set by the host while system animations are off, e.g. a zero animator duration scale
+     * or battery saver, so values are applied without animating.
+     */
+    void setAnimationSuppressed(boolean animationSuppressed) {
+        isAnimationSuppressed = animationSuppressed;
+        if (animationSuppressed) suspendAnimations();
+        updateIndeterminateAnimation();
+    }
+
+    /**
+     * Spins the indeterminate arc from the shared frame clock while it can be seen; hidden or
+     * with animations off it stays where it is.
+     */
+    private void updateIndeterminateAnimation() {
+        ProgressAnimationClock clock = ProgressAnimationClock.getInstance();
+        if (isIndeterminate && isVisible() && !isAnimationSuppressed) {
+            if (!indeterminateFrameClient.isRegistered()) {
+                indeterminateStartNanos = START_TIME_PENDING;
+                clock.add(indeterminateFrameClient);
+            }
+        } else {
+            clock.remove(indeterminateFrameClient);
+        }
+    }
+
+    private void suspendAnimations() {
+        long nowNanos = System.nanoTime();
+        if (sweepAnimation.isRunning()) {
+            recordSkippedFrames(sweepAnimation.getRemainingNanos(nowNanos));
+            stopProgressAnimation();
+        }
+
+        if (segmentAnimations != null && segmentFrameClient.isRegistered()) {
+            ProgressAnimationClock.getInstance().remove(segmentFrameClient);
+            for (int i = 0; i < segmentAnimations.length; i++) {
+                recordSkippedFrames(segmentAnimations[i].getRemainingNanos(nowNanos));
+                cancelSegmentAnimation(i);
+                segmentSweeps[i] = segmentAnimations[i].getEndValue();
+            }
+            invalidateSelf();
+        }
+    }
+
+    /**
+     * Visible timers are stepped every frame. Hidden ones need no frames, only their
+     * completion, which is scheduled on the host at the end time.
+     */
+    private void scheduleTimer() {
+        if (isVisible()) {
+            if (timerHandler != null) timerHandler.removeCallbacks(timerCompletion);
+            ProgressAnimationClock.getInstance().add(timerFrameClient);
+        } else {
+            ProgressAnimationClock.getInstance().remove(timerFrameClient);
+            if (timerHandler == null) timerHandler = new Handler(Looper.getMainLooper());
+            timerHandler.removeCallbacks(timerCompletion);
+            // rounded up, a completion running before the end time would find the timer unfinished
+            timerHandler.postAtTime(timerCompletion, (timerStartNanos + timerDurationNanos + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI);
+        }
+    }
+
+    private void updateTimer(long nowNanos) {
+        if (!isTimerRunning) return;
+
+        long elapsedNanos = nowNanos - timerStartNanos;
+        boolean isFinished = elapsedNanos >= timerDurationNanos;
+        double fraction = isFinished ? 1 : Math.max(0, (double) elapsedNanos / timerDurationNanos);
+        if (timerMode == CustomProgressBar.TIMER_COUNTDOWN) fraction = 1 - fraction;
+
+        progressValue = fraction * maxProgressValue;
+        setSweepAngle(toSweepAngle(progressValue, maxProgressValue));
+        dispatchAnimatedProgress(nowNanos, isFinished);
+
+        if (isFinished) {
+            stopTimer();
+            if (onTimerCompleteListener != null) onTimerCompleteListener.onTimerComplete(this);
+        }
+    }
+
+    private void recordSkippedFrames(long durationNanos) {
+        if (metrics != null) metrics.skippedAnimationFrames += durationNanos / FRAME_INTERVAL_NANOS;
+    }
+
+    private void startProgressAnimation(float finalAngle) {
+        sweepAnimation.start(sweepAngle, finalAngle, DEFAULT_ANIMATION_DURATION, animationInterpolator);
+        ProgressAnimationClock.getInstance().add(animationFrameClient);
+        if (metrics != null) metrics.animationsStarted++;
+    }
+
+    /**
+     * Redirects a running spring to the new target, keeping its position and velocity, or
+     * starts one from the current sweep.
+     */
+    private void springProgressAnimation(float finalAngle) {
+        boolean isRetarget = sweepAnimation.isRunning() && sweepAnimation.isSpring();
+        sweepAnimation.springTo(sweepAngle, finalAngle, springStiffness, springDampingRatio);
+        ProgressAnimationClock.getInstance().add(animationFrameClient);
+
+        if (metrics != null) {
+            if (isRetarget) {
+                metrics.animationsRetargeted++;
+            } else {
+                metrics.animationsStarted++;
+            }
+        }
+    }
+
+    private void stopProgressAnimation() {
+        if (sweepAnimation.isRunning()) {
+            ProgressAnimationClock.getInstance().remove(animationFrameClient);
+            sweepAnimation.cancel();
+            setSweepAngle(sweepAnimation.getEndValue());
+            dispatchAnimatedProgress(System.nanoTime(), true);
+            if (metrics != null) metrics.animationsCancelled++;
+        }
+    }
+    //endregion
+
+    /**
+     * Sweeps carry the direction in their sign, so they are mirrored with it. Running
+     * animations are mirrored too and carry on from where they are.
+     *
+     * @return true when the direction changed
+     */
+    private boolean updateDirection(@CustomProgressBar.Direction int newDirection) {
+        if (newDirection == direction) return false;
+
+        direction = newDirection;
+        sweepAngle = -sweepAngle;
+        drawnSweepAngle = -drawnSweepAngle;
+        sweepAnimation.mirror();
+        if (segmentSweeps != null) {
+            for (int i = 0; i < segmentSweeps.length; i++) {
+                segmentSweeps[i] = -segmentSweeps[i];
+                segmentAnimations[i].mirror();
+            }
+        }
+        return true;
+    }
+
+    private void calculateBounds() {
+        Rect bounds = getBounds();
+        float strokeSizeOffset = getStrokeSizeOffset(); // to prevent progress or dot from drawing over the bounds
+
+        ProgressGeometry.computeCircleBounds(bounds.left, bounds.top, bounds.width(), bounds.height(),
+                strokeSizeOffset, circleBoundsValues);
+        circleBounds.set(circleBoundsValues[ProgressGeometry.LEFT], circleBoundsValues[ProgressGeometry.TOP],
+                circleBoundsValues[ProgressGeometry.RIGHT], circleBoundsValues[ProgressGeometry.BOTTOM]);
+
+        radius = circleBounds.width() / 2f;
+        geometry.setCircle(circleBounds.centerX(), circleBounds.centerY(), radius);
+        isBackgroundCacheValid = false;
+        buildTrack();
+        buildTicks();
+
+        // a sweep gradient only depends on its centre, stroke width changes keep the shader
+        if (progressShader == null || progressShaderCenterX != circleBounds.centerX()
+                || progressShaderCenterY != circleBounds.centerY()) {
+            buildProgressShader();
+        } else {
+            updateProgressShaderMatrix();
+        }
+
+        if (labelPaint != null && labelTextSize == 0) {
+            labelPaint.setTextSize(Math.max(1f, radius * LABEL_AUTO_TEXT_SIZE_RATIO));
+            updateLabelMetrics();
+        } else {
+            updateLabelDirtyRect();
+        }
+    }
+
+    /**
+     * Rebuilds the shaped track and its measure. Only bounds, start angle, direction and
+     * shape changes get here, never a progress change.
+     */
+    private void buildTrack() {
+        if (trackShape == null) return;
+
+        trackPath.rewind();
+        if (!circleBounds.isEmpty()) {
+            trackShape.buildTrack(circleBounds, startAngle, direction == CustomProgressBar.DIRECTION_CLOCKWISE, trackPath);
+        }
+        trackMeasure.setPath(trackPath, false);
+        trackLength = trackMeasure.getLength();
+        isBackgroundCacheValid = false;
+    }
+
+    /**
+     * Computes every tick's endpoints, pointing inwards from just inside the stroke. Ticks
+     * are ordered from the start in the progress direction. Runs on bounds, shape, angle and
+     * tick changes only.
+     */
+    private void buildTicks() {
+        tickIntervals = majorTickCount * (minorTicksPerMajor + 1);
+        if (tickIntervals == 0 || circleBounds.isEmpty()) {
+            tickCount = 0;
+            return;
+        }
+
+        // an open track like a gauge gets a tick at both ends
+        boolean isOpenTrack = trackShape != null && !trackMeasure.isClosed();
+        tickCount = isOpenTrack ? tickIntervals + 1 : tickIntervals;
+        if (tickLines.length < tickCount * TICK_COORDINATES) {
+            tickLines = new float[tickCount * TICK_COORDINATES];
+        }
+
+        if (tickPaint == null) {
+            tickPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            tickPaint.setColorFilter(progressPaint.getColorFilter());
+        }
+        float strokeWidth = progressPaint.getStrokeWidth();
+        tickPaint.setStrokeWidth((tickWidth > 0) ? tickWidth : Math.max(1f, strokeWidth / 4f));
+
+        float majorLength = (majorTickLength > 0) ? majorTickLength : strokeWidth;
+        float minorLength = (minorTickLength > 0) ? minorTickLength : majorLength / 2f;
+        float inset = getStrokeSizeOffset() / 2f + ((tickGap > 0) ? tickGap : strokeWidth / 2f);
+        float sign = (direction == CustomProgressBar.DIRECTION_COUNTERCLOCKWISE) ? -1 : 1;
+        tickInnerRadius = radius - inset - majorLength;
+
+        for (int i = 0; i < tickCount; i++) {
+            float length = (i % (minorTicksPerMajor + 1) == 0) ? majorLength : minorLength;
+            float fromX;
+            float fromY;
+            // unit vector pointing into the ring
+            float inX;
+            float inY;
+            if (trackShape == null) {
+                float angle = startAngle + sign * 360f * i / tickIntervals;
+                inX = -ProgressGeometry.cos(angle);
+                inY = -ProgressGeometry.sin(angle);
+                fromX = circleBounds.centerX() - inX * radius;
+                fromY = circleBounds.centerY() - inY * radius;
+            } else {
+                trackMeasure.getPosTan(trackLength * i / tickIntervals, trackPosition, trackTangent);
+                inX = -trackTangent[1] * sign;
+                inY = trackTangent[0] * sign;
+                fromX = trackPosition[0];
+                fromY = trackPosition[1];
+            }
+
+            int offset = i * TICK_COORDINATES;
+            tickLines[offset] = fromX + inX * inset;
+            tickLines[offset + 1] = fromY + inY * inset;
+            tickLines[offset + 2] = fromX + inX * (inset + length);
+            tickLines[offset + 3] = fromY + inY * (inset + length);
+        }
+    }
+
+    private void buildProgressShader() {
+        if (gradientColors == null || circleBounds.isEmpty()) {
+            progressShader = null;
+            progressPaint.setShader(null);
+            return;
+        }
+
+        progressShaderCenterX = circleBounds.centerX();
+        progressShaderCenterY = circleBounds.centerY();
+        progressShader = new SweepGradient(progressShaderCenterX, progressShaderCenterY, gradientColors, gradientPositions);
+        updateProgressShaderMatrix();
+        progressPaint.setShader(progressShader);
+        if (metrics != null) metrics.shadersBuilt++;
+    }
+
+    /**
+     * Turns the gradient so it begins at the start angle and runs in the progress direction.
+     */
+    private void updateProgressShaderMatrix() {
+        if (progressShader == null) return;
+
+        progressShaderMatrix.setRotate(startAngle, progressShaderCenterX, progressShaderCenterY);
+        if (direction == CustomProgressBar.DIRECTION_COUNTERCLOCKWISE) {
+            progressShaderMatrix.preScale(1f, -1f, progressShaderCenterX, progressShaderCenterY);
+        }
+        progressShader.setLocalMatrix(progressShaderMatrix);
+    }
+
+    float getStrokeSizeOffset() {
+        float dotWidth = dotPaint.getStrokeWidth();
+        float progressWidth = progressPaint.getStrokeWidth();
+        float progressBackgroundWidth = progressBackgroundPaint.getStrokeWidth();
+        return (shouldDrawDot) ? Math.max(dotWidth, Math.max(progressWidth, progressBackgroundWidth)) : Math.max(progressWidth, progressBackgroundWidth);
+    }
+
+    /**
+     * Scales the colour's own alpha by the drawable alpha.
+     */
+    @ColorInt
+    private int applyAlpha(@ColorInt int color) {
+        if (alpha == 255) return color;
+        return (color & 0x00FFFFFF) | ((Color.alpha(color) * alpha / 255) << 24);
+    }
+
+    //region label helpers
+    private boolean isLabelVisible() {
+        if (labelMode == CustomProgressBar.LABEL_NONE || isIndeterminate) return false;
+        return labelMode != CustomProgressBar.LABEL_CUSTOM || labelFormatter != null;
+    }
+
+    private double getAnimatedProgress(float sweep) {
+        return getSweepFraction(sweep) * maxProgressValue;
+    }
+
+    /**
+     * The part of the ring covered by {@code sweep}, clamped to 0..1. An underdamped spring
+     * overshoots past a full ring or past the start, to the other sign, and must not be
+     * reported as more than the max or as a mirrored value.
+     */
+    private float getSweepFraction(float sweep) {
+        float fraction = ((direction == CustomProgressBar.DIRECTION_COUNTERCLOCKWISE) ? -sweep : sweep) / 360f;
+        return Math.max(0f, Math.min(1f, fraction));
+    }
+
+    /**
+     * Identifies the label text shown for a sweep, so unchanged text is neither re-formatted
+     * nor treated as a reason to invalidate.
+     */
+    private long getLabelKey(float sweep) {
+        switch (labelMode) {
+            case CustomProgressBar.LABEL_PERCENT:
+                return Math.round(getSweepFraction(sweep) * 100);
+            default:
+                // values and formatted labels change once per whole progress unit
+                return Math.round(getAnimatedProgress(sweep));
+        }
+    }
+
+    private void configureLabelPaint() {
+        if (labelMode == CustomProgressBar.LABEL_NONE && labelPaint == null) return;
+
+        if (labelPaint == null) {
+            labelPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            labelPaint.setTextAlign(Paint.Align.CENTER);
+            labelPaint.setColorFilter(progressPaint.getColorFilter());
+        }
+        labelPaint.setColor(applyAlpha(labelColor));
+        labelPaint.setTextSize((labelTextSize > 0) ? labelTextSize : Math.max(1f, radius * LABEL_AUTO_TEXT_SIZE_RATIO));
+        updateLabelMetrics();
+    }
+
+    /**
+     * Re-measures the widest label for the current mode, size and max progress and drops any
+     * formatted text, which is rebuilt on the next draw.
+     */
+    private void updateLabelMetrics() {
+        labelCharsValue = -1;
+        customLabel = null;
+        drawnLabelKey = Long.MIN_VALUE;
+        if (labelPaint == null) return;
+
+        labelPaint.getFontMetrics(labelFontMetrics);
+        labelBaselineOffset = -(labelFontMetrics.ascent + labelFontMetrics.descent) / 2f;
+        labelHeight = labelFontMetrics.descent - labelFontMetrics.ascent;
+
+        switch (labelMode) {
+            case CustomProgressBar.LABEL_PERCENT:
+                labelWidth = labelPaint.measureText(LabelText.percent(100));
+                break;
+            case CustomProgressBar.LABEL_VALUE:
+                long max = Math.round(maxProgressValue);
+                int count = LabelText.formatValue(max, max, labelChars);
+                labelWidth = labelPaint.measureText(labelChars, 0, count);
+                break;
+            case CustomProgressBar.LABEL_CUSTOM:
+                CharSequence widest = (labelFormatter != null) ? labelFormatter.format(maxProgressValue, maxProgressValue) : null;
+                labelWidth = (widest != null) ? labelPaint.measureText(widest, 0, widest.length()) : 0;
+                break;
+            default:
+                labelWidth = 0;
+                break;
+        }
+        updateLabelDirtyRect();
+    }
+
+    private void updateLabelDirtyRect() {
+        float halfWidth = labelWidth / 2f + ANTI_ALIAS_PADDING_PX;
+        float halfHeight = labelHeight / 2f + ANTI_ALIAS_PADDING_PX;
+        labelDirtyRect.set((int) Math.floor(circleBounds.centerX() - halfWidth),
+                (int) Math.floor(circleBounds.centerY() - halfHeight),
+                (int) Math.ceil(circleBounds.centerX() + halfWidth),
+                (int) Math.ceil(circleBounds.centerY() + halfHeight));
+    }
+
+    /**
+     * Size of the widest label at an explicit text size, for measuring a host view. Empty when
+     * no label is shown or its text scales with the ring.
+     */
+    void getLabelBounds(@NonNull Rect out) {
+        if (!isLabelVisible() || labelTextSize == 0) {
+            out.setEmpty();
+            return;
+        }
+        out.set(0, 0, (int) Math.ceil(labelWidth), (int) Math.ceil(labelHeight));
+    }
+    //endregion
+
+    private void invalidateBounds() {
+        calculateBounds();
+        invalidateSelf();
+    }
+
+    //region milestone helpers
+    /**
+     * Progress and dot take the colour of the highest milestone reached, if colours were
+     * given, and their own colours below the first one.
+     */
+    private void applyProgressColors() {
+        boolean isInMilestone = milestoneColors != null && milestoneLevel > 0;
+        progressPaint.setColor(applyAlpha(isInMilestone ? milestoneColors[milestoneLevel - 1] : progressColor));
+        dotPaint.setColor(applyAlpha(isInMilestone ? milestoneColors[milestoneLevel - 1] : dotColor));
+    }
+
+    /**
+     * Binary search for the number of thresholds at or below {@code progress}.
+     */
+    private int findMilestoneLevel(@NonNull double[] thresholds, double progress) {
+        double value = progress + maxProgressValue * MILESTONE_TOLERANCE;
+        int low = 0;
+        int high = thresholds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (thresholds[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Notifies every threshold crossed between the last drawn sweep and this one, in crossing
+     * order, and switches colours only when the milestone level changed.
+     *
+     * @return true when the progress colour changed
+     */
+    private boolean updateMilestones(float newSweepAngle) {
+        double[] thresholds = milestones;
+        if (thresholds == null) return false;
+
+        int level = findMilestoneLevel(thresholds, getAnimatedProgress(newSweepAngle));
+        int previousLevel = milestoneLevel;
+        if (level == previousLevel) return false;
+
+        milestoneLevel = level;
+        OnMilestoneListener[] listeners = milestoneListeners;
+        if (level > previousLevel) {
+            for (int i = previousLevel; i < level; i++) {
+                dispatchMilestone(listeners, i, thresholds[i], true);
+            }
+        } else {
+            for (int i = previousLevel - 1; i >= level; i--) {
+                dispatchMilestone(listeners, i, thresholds[i], false);
+            }
+        }
+
+        if (milestoneColors == null) return false;
+        applyProgressColors();
+        return true;
+    }
+
+    private void dispatchMilestone(OnMilestoneListener[] listeners, int index, double threshold, boolean isUpwards) {
+        for (OnMilestoneListener listener : listeners) {
+            listener.onMilestoneCrossed(index, threshold, isUpwards);
+            onListenerDispatched();
+        }
+    }
+    //endregion
+
+    /**
+     * Updates the sweep and invalidates only the part of the ring between the last drawn
+     * sweep and the new one, including the dot at both ends.
+     */
+    private void setSweepAngle(float newSweepAngle) {
+        sweepAngle = newSweepAngle;
+        boolean isColorChanged = updateMilestones(newSweepAngle);
+
+        if (circleBounds.isEmpty()) {
+            invalidateSelf();
+            return;
+        }
+
+        boolean isLabelChanged = isLabelVisible() && getLabelKey(newSweepAngle) != drawnLabelKey;
+        float arcLengthChange = (trackShape != null)
+                ? Math.abs(newSweepAngle - drawnSweepAngle) / 360f * trackLength
+                : (float) Math.toRadians(Math.abs(newSweepAngle - drawnSweepAngle)) * radius;
+        if (arcLengthChange < MIN_ARC_LENGTH_CHANGE_PX && !isLabelChanged && !isColorChanged) {
+            if (metrics != null) metrics.skippedInvalidationCount++;
+            return;
+        }
+
+        if (trackShape != null || isColorChanged || (isLabelChanged && labelMode == CustomProgressBar.LABEL_CUSTOM)) {
+            // recoloured arcs, shaped tracks and formatted labels have no cheap bounds, so repaint everything
+            invalidateSelf();
+            return;
+        }
+
+        ProgressGeometry.computeArcBounds(circleBounds.centerX(), circleBounds.centerY(), radius,
+                startAngle + drawnSweepAngle, startAngle + newSweepAngle, arcBounds);
+        float padding = getStrokeSizeOffset() / 2f + ANTI_ALIAS_PADDING_PX;
+        dirtyRect.set((int) Math.floor(arcBounds[ProgressGeometry.LEFT] - padding),
+                (int) Math.floor(arcBounds[ProgressGeometry.TOP] - padding),
+                (int) Math.ceil(arcBounds[ProgressGeometry.RIGHT] + padding),
+                (int) Math.ceil(arcBounds[ProgressGeometry.BOTTOM] + padding));
+        if (isLabelChanged) dirtyRect.union(labelDirtyRect);
+        if (tickCount > 0 && tickHighlightColor != tickColor) {
+            // highlighted ticks lie inside the ring, between the same angles
+            ProgressGeometry.computeArcBounds(circleBounds.centerX(), circleBounds.centerY(), tickInnerRadius,
+                    startAngle + drawnSweepAngle, startAngle + newSweepAngle, arcBounds);
+            dirtyRect.union((int) Math.floor(arcBounds[ProgressGeometry.LEFT] - padding),
+                    (int) Math.floor(arcBounds[ProgressGeometry.TOP] - padding),
+                    (int) Math.ceil(arcBounds[ProgressGeometry.RIGHT] + padding),
+                    (int) Math.ceil(arcBounds[ProgressGeometry.BOTTOM] + padding));
+        }
+
+        if (metrics != null) {
+            long area = (long) dirtyRect.width() * dirtyRect.height();
+            metrics.partialInvalidationCount++;
+            metrics.invalidatedArea += area;
+            metrics.lastInvalidatedArea = area;
+        }
+
+        isSweepInvalidation = true;
+        invalidateSelf();
+        isSweepInvalidation = false;
+    }
+
+    //region get methods
+    @ColorInt
+    public int getProgressColor() {
+        return progressColor;
+    }
+
+    @ColorInt
+    public int getProgressBackgroundColor() {
+        return progressBackgroundColor;
+    }
+
+    public float getProgressStrokeWidth() {
+        return progressPaint.getStrokeWidth();
+    }
+
+    public float getProgressBackgroundStrokeWidth() {
+        return progressBackgroundPaint.getStrokeWidth();
+    }
+
+    public boolean isDotEnabled() {
+        return shouldDrawDot;
+    }
+
+    @ColorInt
+    public int getDotColor() {
+        return dotColor;
+    }
+
+    public float getDotWidth() {
+        return dotPaint.getStrokeWidth();
+    }
+
+    @CustomProgressBar.Cap
+    public int getProgressStrokeCap() {
+        return (progressPaint.getStrokeCap() == Paint.Cap.ROUND) ? CustomProgressBar.CAP_ROUND : CustomProgressBar.CAP_STRAIGHT;
+    }
+
+    public double getProgress() {
+        return progressValue;
+    }
+
+    public double getMaxProgress() {
+        return maxProgressValue;
+    }
+
+    public int getStartAngle() {
+        return startAngle;
+    }
+
+    @CustomProgressBar.Direction
+    public int getDirection() {
+        return direction;
+    }
+
+    public boolean isAnimationEnabled() {
+        return isAnimationEnabled;
+    }
+
+    public boolean isFillBackgroundEnabled() {
+        return isFillBackgroundEnabled;
+    }
+
+    public boolean isBackgroundCacheEnabled() {
+        return isBackgroundCacheEnabled;
+    }
+
+    public boolean isIndeterminate() {
+        return isIndeterminate;
+    }
+
+    @NonNull
+    public Interpolator getInterpolator() {
+        return animationInterpolator;
+    }
+
+    @CustomProgressBar.AnimationMode
+    public int getAnimationMode() {
+        return animationMode;
+    }
+
+    public boolean isTimerRunning() {
+        return isTimerRunning;
+    }
+
+    public int getMilestoneCount() {
+        return (milestones == null) ? 0 : milestones.length;
+    }
+
+    public int getMajorTickCount() {
+        return majorTickCount;
+    }
+
+    public int getMinorTicksPerMajor() {
+        return minorTicksPerMajor;
+    }
+
+    @ColorInt
+    public int getTickColor() {
+        return tickColor;
+    }
+
+    @ColorInt
+    public int getTickHighlightColor() {
+        return tickHighlightColor;
+    }
+
+    /**
+     * @return the shape of the track, or {@code null} for the default circle
+     */
+    @Nullable
+    public TrackShape getTrackShape() {
+        return trackShape;
+    }
+
+    public int getSegmentCount() {
+        return (segmentValues == null) ? 0 : segmentValues.length;
+    }
+
+    public double getSegmentValue(int index) {
+        return segmentValues[index];
+    }
+
+    /**
+     * @return a copy of the gradient colours, or {@code null} when the progress is a solid colour
+     */
+    @Nullable
+    @ColorInt
+    public int[] getProgressGradientColors() {
+        return (gradientColors != null) ? gradientColors.clone() : null;
+    }
+
+    @CustomProgressBar.LabelMode
+    public int getLabelMode() {
+        return labelMode;
+    }
+
+    @ColorInt
+    public int getLabelColor() {
+        return labelColor;
+    }
+
+    /**
+     * @return the label text size in pixels, or 0 when it scales with the ring
+     */
+    public int getLabelTextSize() {
+        return labelTextSize;
+    }
+
+    @Nullable
+    public LabelFormatter getLabelFormatter() {
+        return labelFormatter;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metrics != null;
+    }
+
+    /**
+     * @return a snapshot of the counters recorded since metrics were enabled, or {@code null}
+     * when metrics are disabled
+     */
+    @Nullable
+    public ProgressBarMetrics getMetrics() {
+        return (metrics != null) ? metrics.snapshot() : null;
+    }
+    //endregion
+
+    //region set methods
+    public void setProgressColor(@ColorInt int color) {
+        progressColor = color;
+        applyProgressColors();
+        invalidateSelf();
+    }
+
+    public void setProgressBackgroundColor(@ColorInt int color) {
+        progressBackgroundColor = color;
+        progressBackgroundPaint.setColor(applyAlpha(color));
+        isBackgroundCacheValid = false;
+        invalidateSelf();
+    }
+
+    public void setProgressStrokeWidthPx(@Dimension int strokeWidth) {
+        progressPaint.setStrokeWidth(strokeWidth);
+        invalidateBounds();
+    }
+
+    public void setProgressBackgroundStrokeWidthPx(@Dimension int strokeWidth) {
+        progressBackgroundPaint.setStrokeWidth(strokeWidth);
+        invalidateBounds();
+    }
+
+    public void setMaxProgress(double maxProgress) {
+        maxProgressValue = maxProgress;
+        updateLabelMetrics();
+        updateSegmentSweeps();
+        if (maxProgressValue < progressValue) {
+            setProgress(maxProgress, maxProgress);
+        }
+        updateMilestones(sweepAngle);
+        invalidateSelf();
+    }
+
+    public void setProgress(double current, double max) {
+        stopTimer();
+        final float finalAngle = toSweepAngle(current, max);
+
+        boolean isMaxChanged = max != maxProgressValue;
+        maxProgressValue = max;
+        if (isMaxChanged) updateLabelMetrics();
+        progressValue = Math.min(current, max);
+
+        // already showing this value, e.g. a screen re-applying its progress after restore
+        if (!sweepAnimation.isRunning() && finalAngle == sweepAngle) {
+            if (isMaxChanged) {
+                // same ring, but the label and the milestones are in progress units
+                updateMilestones(sweepAngle);
+                invalidateSelf();
+            }
+            return;
+        }
+
+        if (animationMode == CustomProgressBar.ANIMATION_SPRING && canAnimate()) {
+            springProgressAnimation(finalAngle);
+            return;
+        }
+
+        stopProgressAnimation();
+
+        if (canAnimate()) {
+            startProgressAnimation(finalAngle);
+        } else {
+            if (isAnimationEnabled) recordSkippedFrames(DEFAULT_ANIMATION_DURATION * NANOS_PER_MILLI);
+            setSweepAngle(finalAngle);
+            dispatchAnimatedProgress(System.nanoTime(), true);
+        }
+    }
+
+    /**
+     * Applies a saved progress at its final frame, without animating or notifying listeners.
+     */
+    void restoreProgress(double progress, double maxProgress, float targetSweepAngle) {
+        if (sweepAnimation.isRunning()) {
+            ProgressAnimationClock.getInstance().remove(animationFrameClient);
+            sweepAnimation.cancel();
+        }
+        maxProgressValue = maxProgress;
+        progressValue = progress;
+        sweepAngle = targetSweepAngle;
+        if (milestones != null) {
+            // a restored bar is already past its milestones, nothing is crossed
+            milestoneLevel = findMilestoneLevel(milestones, progress);
+            applyProgressColors();
+        }
+        updateLabelMetrics();
+        updateSegmentSweeps();
+        invalidateSelf();
+    }
+
+    /**
+     * Applies a progress at its final frame whatever the animation settings, without posting
+     * to the frame clock, so it also works on threads without a looper. Listeners are not
+     * notified.
+     */
+    void setProgressImmediately(double current, double max) {
+        stopTimer();
+        restoreProgress(Math.min(current, max), max, toSweepAngle(current, max));
+    }
+
+    float getTargetSweepAngle() {
+        return sweepAnimation.isRunning() ? sweepAnimation.getEndValue() : sweepAngle;
+    }
+
+    boolean isProgressAnimationRunning() {
+        return sweepAnimation.isRunning();
+    }
+
+    public void setShouldDrawDot(boolean shouldDrawDot) {
+        this.shouldDrawDot = shouldDrawDot;
+        invalidateBounds();
+    }
+
+    public void setDotColor(@ColorInt int color) {
+        dotColor = color;
+        applyProgressColors();
+        invalidateSelf();
+    }
+
+    public void setDotWidthPx(@Dimension int width) {
+        dotPaint.setStrokeWidth(width);
+        invalidateBounds();
+    }
+
+    public void setStartAngle(@IntRange(from = 0, to = 360) int startAngle) {
+        this.startAngle = startAngle;
+        updateProgressShaderMatrix();
+        buildTrack();
+        buildTicks();
+        invalidateSelf();
+    }
+
+    public void setDirection(@CustomProgressBar.Direction int direction) {
+        if (!updateDirection(direction)) return;
+
+        updateProgressShaderMatrix();
+        buildTrack();
+        buildTicks();
+        invalidateSelf();
+    }
+
+    /**
+     * Draws the track and progress along a shape instead of a circle, e.g.
+     * {@link TrackShapes#roundedSquare(float)} or {@link TrackShapes#gauge(float)}. The shape
+     * is built into a path once per bounds, start angle or direction change; each frame only
+     * copies the progress part of it into a reused path. {@code null} restores the circle.
+     */
+    public void setTrackShape(@Nullable TrackShape trackShape) {
+        this.trackShape = trackShape;
+        if (trackShape == null) {
+            trackPath.rewind();
+            trackMeasure.setPath(null, false);
+            trackLength = 0;
+            isBackgroundCacheValid = false;
+        } else {
+            buildTrack();
+        }
+        buildTicks();
+        invalidateSelf();
+    }
+
+    /**
+     * Draws {@code majorTickCount} major ticks evenly along the track, each followed by
+     * {@code minorTicksPerMajor} shorter ones. All tick endpoints live in one buffer computed
+     * when the bounds change, so a frame costs one or two drawLines calls. 0 removes them.
+     */
+    public void setTickMarks(@IntRange(from = 0) int majorTickCount, @IntRange(from = 0) int minorTicksPerMajor) {
+        this.majorTickCount = majorTickCount;
+        this.minorTicksPerMajor = minorTicksPerMajor;
+        buildTicks();
+        invalidateSelf();
+    }
+
+    /**
+     * Tick sizes in pixels. 0 picks a size from the progress stroke width: major ticks as
+     * long as the stroke, minor ones half that, a quarter of it wide and half of it away from
+     * the ring.
+     */
+    public void setTickMarkSizePx(@Dimension int majorLength, @Dimension int minorLength,
+                                  @Dimension int width, @Dimension int gap) {
+        majorTickLength = majorLength;
+        minorTickLength = minorLength;
+        tickWidth = width;
+        tickGap = gap;
+        buildTicks();
+        invalidateSelf();
+    }
+
+    public void setTickColor(@ColorInt int color) {
+        tickColor = color;
+        invalidateSelf();
+    }
+
+    /**
+     * Colour of the ticks the progress has reached. Same as the tick colour by default,
+     * which draws all ticks in one call.
+     */
+    public void setTickHighlightColor(@ColorInt int color) {
+        tickHighlightColor = color;
+        invalidateSelf();
+    }
+
+    /**
+     * Paints the progress arc with a gradient running from the start angle in the progress
+     * direction, replacing the progress colour. The shader is only rebuilt when the colours or
+     * the ring's centre change; pass {@code null} to go back to the solid colour.
+     *
+     * @param positions relative positions of the colours in 0..1, or {@code null} to space
+     *                  them evenly
+     */
+    public void setProgressGradient(@Nullable @ColorInt int[] colors, @Nullable float[] positions) {
+        if (colors != null && colors.length < 2) {
+            throw new IllegalArgumentException("a gradient needs at least two colors");
+        }
+        if (colors != null && positions != null && positions.length != colors.length) {
+            throw new IllegalArgumentException("colors and positions must have the same length");
+        }
+
+        gradientColors = (colors != null) ? colors.clone() : null;
+        gradientPositions = (colors != null && positions != null) ? positions.clone() : null;
+        buildProgressShader();
+        invalidateSelf();
+    }
+
+    public void setProgressStrokeCap(@CustomProgressBar.Cap int cap) {
+        Paint.Cap paintCap = (cap == CustomProgressBar.CAP_ROUND) ? Paint.Cap.ROUND : Paint.Cap.BUTT;
+        if (progressPaint.getStrokeCap() != paintCap) {
+            progressPaint.setStrokeCap(paintCap);
+            invalidateSelf();
+        }
+    }
+
+    public void setAnimationEnabled(boolean enableAnimation) {
+        isAnimationEnabled = enableAnimation;
+        if (!enableAnimation) stopProgressAnimation();
+    }
+
+    public void setFillBackgroundEnabled(boolean fillBackgroundEnabled) {
+        if (fillBackgroundEnabled == isFillBackgroundEnabled) return;
+
+        isFillBackgroundEnabled = fillBackgroundEnabled;
+
+        Paint.Style style = fillBackgroundEnabled ? Paint.Style.FILL_AND_STROKE : Paint.Style.STROKE;
+        progressBackgroundPaint.setStyle(style);
+        isBackgroundCacheValid = false;
+
+        invalidateSelf();
+    }
+
+    /**
+     * Renders the static background ring once into a bitmap which is then composited on every
+     * draw. Trades one bounds sized bitmap for not redrawing the ring each frame.
+     */
+    public void setBackgroundCacheEnabled(boolean backgroundCacheEnabled) {
+        if (backgroundCacheEnabled == isBackgroundCacheEnabled) return;
+
+        isBackgroundCacheEnabled = backgroundCacheEnabled;
+        if (!backgroundCacheEnabled) releaseBackgroundCache();
+
+        invalidateSelf();
+    }
+
+    /**
+     * Used by {@link CustomProgressBar#ANIMATION_TWEEN}.
+     */
+    public void setInterpolator(@NonNull Interpolator interpolator) {
+        animationInterpolator = interpolator;
+    }
+
+    /**
+     * {@link CustomProgressBar#ANIMATION_TWEEN} plays a fixed length animation per progress
+     * change. {@link CustomProgressBar#ANIMATION_SPRING} moves the ring with a spring whose
+     * target follows every change, so rapid updates keep one continuous motion instead of
+     * restarting from the previous target.
+     */
+    public void setAnimationMode(@CustomProgressBar.AnimationMode int animationMode) {
+        if (animationMode == this.animationMode) return;
+
+        this.animationMode = animationMode;
+        stopProgressAnimation();
+    }
+
+    /**
+     * @param stiffness    spring constant, as in {@code SpringForce}; defaults to 200
+     * @param dampingRatio 1, the default, for no overshoot, less to bounce. A bouncing ring
+     *                     may briefly overshoot a full turn or the start; the progress
+     *                     reported to listeners, milestones and the label stays within
+     *                     0..max
+     */
+    public void setSpring(float stiffness, float dampingRatio) {
+        if (stiffness <= 0 || dampingRatio <= 0) {
+            throw new IllegalArgumentException("stiffness and damping ratio must be positive");
+        }
+        springStiffness = stiffness;
+        springDampingRatio = dampingRatio;
+    }
+
+    /**
+     * Draws an arc circling along the track instead of the progress, one turn per second. Only
+     * the arc moves; the track, its shape and the tick marks stay in place.
+     */
+    public void setIndeterminate(boolean indeterminate) {
+        if (indeterminate == isIndeterminate) return;
+
+        isIndeterminate = indeterminate;
+        if (indeterminate) stopProgressAnimation();
+        updateIndeterminateAnimation();
+
+        invalidateSelf();
+    }
+
+    /**
+     * Shows the progress as text in the middle of the ring. Percentages come from a shared
+     * cache and values are formatted into a reused buffer, so animating the label does not
+     * allocate. {@link CustomProgressBar#LABEL_CUSTOM} needs {@link #setLabelFormatter}.
+     */
+    public void setLabelMode(@CustomProgressBar.LabelMode int labelMode) {
+        this.labelMode = labelMode;
+        configureLabelPaint();
+        invalidateSelf();
+    }
+
+    public void setLabelColor(@ColorInt int color) {
+        labelColor = color;
+        if (labelPaint != null) labelPaint.setColor(applyAlpha(color));
+        invalidateSelf();
+    }
+
+    /**
+     * @param textSize size in pixels, or 0 to scale the label with the ring
+     */
+    public void setLabelTextSizePx(@Dimension int textSize) {
+        labelTextSize = textSize;
+        configureLabelPaint();
+        invalidateSelf();
+    }
+
+    /**
+     * Formats the label and switches to {@link CustomProgressBar#LABEL_CUSTOM}; {@code null}
+     * hides the label. The formatter receives the drawn progress rounded to a whole value and
+     * is called only when that value changes, never for frames in which only the ring moves.
+     */
+    public void setLabelFormatter(@Nullable LabelFormatter formatter) {
+        labelFormatter = formatter;
+        setLabelMode((formatter != null) ? CustomProgressBar.LABEL_CUSTOM : CustomProgressBar.LABEL_NONE);
+    }
+
+    /**
+     * Starts or stops recording {@link ProgressBarMetrics}. Enabling always starts from zero.
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        metrics = metricsEnabled ? new ProgressBarMetrics() : null;
+    }
+
+    void onListenerDispatched() {
+        if (metrics != null) metrics.listenerDispatches++;
+    }
+
+    /**
+     * Lets the ring follow time instead of progress values: {@link CustomProgressBar#TIMER_ELAPSED}
+     * fills it from empty and {@link CustomProgressBar#TIMER_COUNTDOWN} empties it from full
+     * over {@code durationMillis}. Every frame derives the sweep from the frame time through
+     * the shared frame clock, so timers need no progress calls or animators, and frames stop
+     * once the time is up. Progress is reported in units of {@link #getMaxProgress()}.
+     * Must be called on the main thread; {@link #setProgress(double, double)} stops the timer.
+     *
+     * @param startUptimeMillis start in the {@code SystemClock.uptimeMillis()} time base, which
+     *                          may lie in the past to resume a running timer
+     */
+    public void startTimer(@CustomProgressBar.TimerMode int timerMode, long startUptimeMillis, long durationMillis) {
+        stopTimer();
+        stopProgressAnimation();
+
+        this.timerMode = timerMode;
+        timerStartNanos = startUptimeMillis * NANOS_PER_MILLI;
+        timerDurationNanos = Math.max(0, durationMillis) * NANOS_PER_MILLI;
+        isTimerRunning = true;
+
+        updateTimer(System.nanoTime());
+        if (isTimerRunning) scheduleTimer();
+    }
+
+    /**
+     * Stops a running timer where it is, without notifying the completion listener.
+     */
+    public void stopTimer() {
+        if (!isTimerRunning) return;
+
+        isTimerRunning = false;
+        ProgressAnimationClock.getInstance().remove(timerFrameClient);
+        if (timerHandler != null) timerHandler.removeCallbacks(timerCompletion);
+    }
+
+    public void setOnTimerCompleteListener(@Nullable OnTimerCompleteListener listener) {
+        onTimerCompleteListener = listener;
+    }
+
+    /**
+     * Reports when the drawn progress crosses one of the {@code thresholds}, given in progress
+     * units in ascending order, in either direction and on every animation frame. Each frame
+     * costs one binary search; callbacks take primitives only. With {@code colors}, the
+     * progress and dot take {@code colors[i]} from {@code thresholds[i]} upwards, switched
+     * only at the crossing. {@code null} thresholds remove all milestones.
+     */
+    public void setMilestones(@Nullable double[] thresholds, @Nullable @ColorInt int[] colors) {
+        if (thresholds == null) {
+            milestones = null;
+            milestoneColors = null;
+            milestoneLevel = 0;
+            applyProgressColors();
+            invalidateSelf();
+            return;
+        }
+
+        for (int i = 1; i < thresholds.length; i++) {
+            if (thresholds[i] < thresholds[i - 1]) {
+                throw new IllegalArgumentException("thresholds must be sorted in ascending order");
+            }
+        }
+        if (colors != null && colors.length != thresholds.length) {
+            throw new IllegalArgumentException("thresholds and colors must have the same length");
+        }
+
+        milestones = thresholds.clone();
+        milestoneColors = (colors != null) ? colors.clone() : null;
+        // thresholds already below the drawn progress count as reached, without callbacks
+        milestoneLevel = findMilestoneLevel(milestones, getAnimatedProgress(sweepAngle));
+        applyProgressColors();
+        invalidateSelf();
+    }
+
+    public void addOnMilestoneListener(@NonNull OnMilestoneListener listener) {
+        milestoneListeners = addListener(milestoneListeners, listener);
+    }
+
+    public void removeOnMilestoneListener(@NonNull OnMilestoneListener listener) {
+        milestoneListeners = removeListener(milestoneListeners, listener, NO_MILESTONE_LISTENERS);
+    }
+
+    /**
+     * Shows several values stacked on one ring, e.g. used/reserved/free, each in its own colour.
+     * Values are in progress units against {@link #getMaxProgress()}. Segments replace the
+     * single progress arc and its dot; pass {@code null} to go back to a single value.
+     */
+    public void setSegments(@Nullable double[] values, @Nullable @ColorInt int[] colors) {
+        if (values == null || colors == null) {
+            cancelSegmentAnimations();
+            segmentValues = null;
+            segmentColors = null;
+            segmentSweeps = null;
+            segmentAnimations = null;
+            invalidateSelf();
+            return;
+        }
+
+        if (values.length != colors.length) {
+            throw new IllegalArgumentException("values and colors must have the same length");
+        }
+
+        if (segmentPaint == null) {
+            segmentPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            segmentPaint.setStyle(Paint.Style.STROKE);
+            // adjacent segments would overlap with round caps
+            segmentPaint.setStrokeCap(Paint.Cap.BUTT);
+            segmentPaint.setColorFilter(progressPaint.getColorFilter());
+        }
+
+        if (segmentValues == null || segmentValues.length != values.length) {
+            cancelSegmentAnimations();
+            segmentValues = new double[values.length];
+            segmentColors = new int[values.length];
+            segmentSweeps = new float[values.length];
+            segmentAnimations = new SweepAnimation[values.length];
+            for (int i = 0; i < values.length; i++) {
+                segmentAnimations[i] = new SweepAnimation();
+            }
+        }
+
+        System.arraycopy(values, 0, segmentValues, 0, values.length);
+        System.arraycopy(colors, 0, segmentColors, 0, colors.length);
+        updateSegmentSweeps();
+    }
+
+    /**
+     * Changes a single segment, animating only that segment when animation is enabled.
+     */
+    public void setSegmentValue(int index, double value) {
+        if (segmentValues == null) {
+            throw new IllegalStateException("setSegments must be called first");
+        }
+
+        segmentValues[index] = value;
+        float finalSweep = toSweepAngle(value, maxProgressValue);
+
+        if (canAnimate()) {
+            // a restarted segment counts like a restarted progress animation
+            cancelSegmentAnimation(index);
+            segmentAnimations[index].start(segmentSweeps[index], finalSweep, DEFAULT_ANIMATION_DURATION, animationInterpolator);
+            ProgressAnimationClock.getInstance().add(segmentFrameClient);
+            if (metrics != null) metrics.animationsStarted++;
+        } else {
+            if (isAnimationEnabled) recordSkippedFrames(DEFAULT_ANIMATION_DURATION * NANOS_PER_MILLI);
+            cancelSegmentAnimation(index);
+            segmentSweeps[index] = finalSweep;
+            invalidateSelf();
+        }
+    }
+
+    private void updateSegmentSweeps() {
+        if (segmentValues == null) return;
+
+        for (int i = 0; i < segmentValues.length; i++) {
+            cancelSegmentAnimation(i);
+            segmentSweeps[i] = toSweepAngle(segmentValues[i], maxProgressValue);
+        }
+        invalidateSelf();
+    }
+
+    private void cancelSegmentAnimation(int index) {
+        SweepAnimation animation = segmentAnimations[index];
+        if (!animation.isRunning()) return;
+
+        animation.cancel();
+        if (metrics != null) metrics.animationsCancelled++;
+    }
+
+    /**
+     * Cancels every segment animation before the segment arrays are dropped or replaced.
+     */
+    private void cancelSegmentAnimations() {
+        if (segmentAnimations == null) return;
+
+        ProgressAnimationClock.getInstance().remove(segmentFrameClient);
+        for (int i = 0; i < segmentAnimations.length; i++) {
+            cancelSegmentAnimation(i);
+        }
+    }
+
+    /**
+     * Listens to the progress value as currently drawn, i.e. every interpolated value while an
+     * animation runs, subject to {@link #setAnimatedProgressThrottle(long, double)}.
+     */
+    public void addOnAnimatedProgressListener(@NonNull OnAnimatedProgressListener listener) {
+        animatedProgressListeners = addListener(animatedProgressListeners, listener);
+    }
+
+    public void removeOnAnimatedProgressListener(@NonNull OnAnimatedProgressListener listener) {
+        animatedProgressListeners = removeListener(animatedProgressListeners, listener, NO_LISTENERS);
+    }
+
+    //region copy-on-write listener arrays, iterated by dispatch without allocating
+    private static <T> T[] addListener(T[] listeners, T listener) {
+        for (T registered : listeners) {
+            if (registered == listener) return listeners;
+        }
+
+        T[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        return newListeners;
+    }
+
+    private static <T> T[] removeListener(T[] listeners, T listener, T[] noListeners) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] != listener) continue;
+
+            if (listeners.length == 1) return noListeners;
+            T[] newListeners = Arrays.copyOf(listeners, listeners.length - 1);
+            System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+            return newListeners;
+        }
+        return listeners;
+    }
+    //endregion
+
+    /**
+     * Limits animated progress callbacks to at most one per {@code minIntervalMillis} and to
+     * changes of at least {@code minProgressStep}. The final value of an animation is always
+     * dispatched. Both default to 0, i.e. one callback per frame.
+     */
+    public void setAnimatedProgressThrottle(long minIntervalMillis, double minProgressStep) {
+        animatedProgressMinIntervalNanos = minIntervalMillis * 1_000_000L;
+        animatedProgressMinStep = minProgressStep;
+    }
+
+    private void dispatchAnimatedProgress(long frameTimeNanos, boolean isFinalValue) {
+        OnAnimatedProgressListener[] listeners = animatedProgressListeners;
+        if (listeners.length == 0) return;
+
+        double animatedProgress = getAnimatedProgress(sweepAngle);
+        if (animatedProgress == lastDispatchedAnimatedProgress) return;
+
+        if (!isFinalValue) {
+            boolean tooSoon = frameTimeNanos - lastAnimatedProgressDispatchNanos < animatedProgressMinIntervalNanos;
+            boolean tooSmall = Math.abs(animatedProgress - lastDispatchedAnimatedProgress) < animatedProgressMinStep;
+            if (tooSoon || tooSmall) return;
+        }
+
+        lastAnimatedProgressDispatchNanos = frameTimeNanos;
+        lastDispatchedAnimatedProgress = animatedProgress;
+        for (OnAnimatedProgressListener listener : listeners) {
+            listener.onAnimatedProgress(animatedProgress, maxProgressValue);
+            onListenerDispatched();
+        }
+    }
+
+    private float toSweepAngle(double value, double max) {
+        return ProgressGeometry.toSweepAngle(value, max, direction == CustomProgressBar.DIRECTION_COUNTERCLOCKWISE);
+    }
+    //endregion
+
+    public interface OnAnimatedProgressListener {
+        void onAnimatedProgress(double progress, double maxProgress);
+    }
+
+    public interface OnMilestoneListener {
+        /**
+         * @param index     position of the threshold in the array passed to
+         *                  {@link #setMilestones(double[], int[])}
+         * @param isUpwards true when the progress rose past the threshold, false when it fell
+         *                  below it
+         */
+        void onMilestoneCrossed(int index, double threshold, boolean isUpwards);
+    }
+
+    public interface OnTimerCompleteListener {
+        void onTimerComplete(@NonNull CircularProgressDrawable drawable);
+    }
+
+    /**
+     * Outline of the track the progress is drawn along. A full progress covers the whole
+     * outline, so it should be a single contour, closed with {@link Path#close()} when its
+     * end meets its start. Open tracks, like a gauge, get a tick mark at both ends.
+     */
+    public interface TrackShape {
+        /**
+         * Adds the track to the empty {@code track}, starting where zero progress is and
+         * running in the progress direction. Not called while animating, so it may allocate.
+         *
+         * @param bounds the square the default circle would be drawn in, inset by the stroke
+         */
+        void buildTrack(@NonNull RectF bounds, int startAngle, boolean clockwise, @NonNull Path track);
+    }
+
+    public interface LabelFormatter {
+        /**
+         * @param progress the progress as currently drawn, rounded to a whole value, which
+         *                 changes while animating
+         * @return the label text, or {@code null} for no label
+         */
+        @Nullable
+        CharSequence format(double progress, double maxProgress);
+    }
+}
@@ -1,24 +1,28 @@
 package com.example.circularpb;
 
-import android.animation.Animator;
-import android.animation.PropertyValuesHolder;
-import android.animation.TypeEvaluator;
-import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
 import android.content.Context;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
 import android.graphics.Rect;
-import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.provider.Settings;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.util.TypedValue;
+import android.view.Choreographer;
 import android.view.View;
-import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityManager;
+import android.view.accessibility.AccessibilityNodeInfo;
 import android.view.animation.Interpolator;
+import android.widget.ProgressBar;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.Dimension;
@@ -26,9 +30,12 @@ import androidx.annotation.IntDef;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class CustomProgressBar extends View {
@@ -38,42 +45,60 @@ public class CustomProgressBar extends View {
     public static final int DIRECTION_COUNTERCLOCKWISE = 1;
     public static final int CAP_ROUND = 0;
     public static final int CAP_STRAIGHT = 1;
+    public static final int LABEL_NONE = 0;
+    public static final int LABEL_PERCENT = 1;
+    public static final int LABEL_VALUE = 2;
+    public static final int LABEL_CUSTOM = 3;
+    public static final int ANIMATION_TWEEN = 0;
+    public static final int ANIMATION_SPRING = 1;
+    public static final int TIMER_ELAPSED = 0;
+    public static final int TIMER_COUNTDOWN = 1;
     //endregion
 
-    //region paint
-    private Paint progressPaint;
-    private Paint progressBackgroundPaint;
-    private Paint dotPaint;
-    //endregion
-
-    private static final String DEFAULT_PROGRESS_COLOR = "#28b51b";
-    private static final String DEFAULT_PROGRESS_BACKGROUND_COLOR = "#e0e0e0";
-    private static final int DEFAULT_STROKE_WIDTH_DP = 8;
-    private static final int DEFAULT_PROGRESS_START_ANGLE = 270;
-    private static final int ANGLE_START_PROGRESS_BACKGROUND = 0;
-    private static final int ANGLE_END_PROGRESS_BACKGROUND = 360;
     private static final int DESIRED_WIDTH_DP = 150;
-    private static final int DEFAULT_ANIMATION_DURATION = 1_000;
-    private static final String PROPERTY_ANGLE = "angle";
-    private int startAngle = DEFAULT_PROGRESS_START_ANGLE;
-    private int sweepAngle = 0;
-    private RectF circleBounds;
-    private float radius;
-    private boolean shouldDrawDot;
-    private double maxProgressValue = 100.0;
-    private double progressValue = 0.0;
-    private boolean isAnimationEnabled;
-    private boolean isFillBackgroundEnabled;
-    private ValueAnimator progressAnimator;
-
-    @Direction
-    private int direction = DIRECTION_COUNTERCLOCKWISE;
+    private static final long ACCESSIBILITY_EVENT_DELAY_MILLIS = 200;
+    private static final long ACCESSIBILITY_EVENT_MIN_INTERVAL_MILLIS = 1_000;
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private CircularProgressDrawable progressDrawable;
+    private final Rect textBoundsRect = new Rect();
+
+    //region progress posted from any thread, applied at most once per frame
+    private final AtomicLong pendingProgressBits = new AtomicLong();
+    private final AtomicBoolean isProgressFrameScheduled = new AtomicBoolean();
+    private final Runnable scheduleProgressFrame = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(progressFrameCallback);
+        }
+    };
+    private final Choreographer.FrameCallback progressFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            // clear the flag before reading so a value posted meanwhile schedules another frame
+            isProgressFrameScheduled.set(false);
+            setCurrentProgress(Double.longBitsToDouble(pendingProgressBits.get()));
+        }
+    };
+    //endregion
 
     @Nullable
     private OnProgressChangeListener onProgressChangeListener;
 
-    @NonNull
-    private Interpolator animationInterpolator = new AccelerateDecelerateInterpolator();
+    //region progress announcements, coalesced to the latest target and rate limited
+    @Nullable
+    private AccessibilityManager accessibilityManager;
+    private boolean isAccessibilityEventScheduled;
+    private long lastAccessibilityEventMillis;
+    private final Runnable sendProgressAccessibilityEvent = new Runnable() {
+        @Override
+        public void run() {
+            isAccessibilityEventScheduled = false;
+            lastAccessibilityEventMillis = SystemClock.uptimeMillis();
+            sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_SELECTED);
+        }
+    };
+    //endregion
 
     //region constructor
     public CustomProgressBar(Context context) {
@@ -96,66 +121,24 @@ public class CustomProgressBar extends View {
         super(context, attrs, defStyleAttr, defStyleRes);
         init(context, attrs);
     }
+
+    /**
+     * Creates a bar from a shared style without parsing any attributes.
+     */
+    public CustomProgressBar(Context context, @NonNull ProgressBarStyle style) {
+        super(context);
+        init(style);
+    }
     //endregion
 
     private void init(@NonNull Context context, @Nullable AttributeSet attrs) {
+        init(ProgressBarStyle.fromAttributes(context, attrs));
+    }
 
-        int progressColor = Color.parseColor(DEFAULT_PROGRESS_COLOR);
-        int progressBackgroundColor = Color.parseColor(DEFAULT_PROGRESS_BACKGROUND_COLOR);
-        int progressStrokeWidth = convertdp2px(DEFAULT_STROKE_WIDTH_DP);
-        int progressBackgroundStrokeWidth = progressStrokeWidth;
-
-        shouldDrawDot = true;
-        int dotColor = progressColor;
-        int dotWidth = progressStrokeWidth;
-
-        Paint.Cap progressStrokeCap = Paint.Cap.ROUND;
-
-        if (attrs != null) {
-            TypedArray attributes = context.obtainStyledAttributes(attrs, R.styleable.CustomProgressBar);
-            progressColor = attributes.getColor(R.styleable.CustomProgressBar_progressColor, progressColor);
-            progressBackgroundColor = attributes.getColor(R.styleable.CustomProgressBar_progressBackgroundColor, progressBackgroundColor);
-            progressStrokeWidth = attributes.getDimensionPixelSize(R.styleable.CustomProgressBar_progressStrokeWidth, progressStrokeWidth);
-            progressBackgroundStrokeWidth = attributes.getDimensionPixelSize(R.styleable.CustomProgressBar_progressBackgroundStrokeWidth, progressStrokeWidth);
-            shouldDrawDot = attributes.getBoolean(R.styleable.CustomProgressBar_drawDot, true);
-            dotColor = attributes.getColor(R.styleable.CustomProgressBar_dotColor, progressColor);
-            dotWidth = attributes.getDimensionPixelSize(R.styleable.CustomProgressBar_dotWidth, progressStrokeWidth);
-
-            startAngle = attributes.getInt(R.styleable.CustomProgressBar_startAngle, DEFAULT_PROGRESS_START_ANGLE);
-            if (startAngle < 0 || startAngle > 360) {
-                startAngle = DEFAULT_PROGRESS_START_ANGLE;
-            }
-
-            isAnimationEnabled = attributes.getBoolean(R.styleable.CustomProgressBar_enableProgressAnimation, true);
-            isFillBackgroundEnabled = attributes.getBoolean(R.styleable.CustomProgressBar_fillBackground, false);
-            direction = attributes.getInt(R.styleable.CustomProgressBar_direction, DIRECTION_COUNTERCLOCKWISE);
-
-            int cap = attributes.getInt(R.styleable.CustomProgressBar_progressCap, CAP_ROUND);
-            progressStrokeCap = (cap == CAP_ROUND) ? Paint.Cap.ROUND : Paint.Cap.BUTT;
-            attributes.recycle();
-        }
-
-        progressPaint = new Paint();
-        progressPaint.setStrokeCap(progressStrokeCap);
-        progressPaint.setStrokeWidth(progressStrokeWidth);
-        progressPaint.setStyle(Paint.Style.STROKE);
-        progressPaint.setColor(progressColor);
-        progressPaint.setAntiAlias(true);
-
-        progressBackgroundPaint = new Paint();
-        Paint.Style progressBackgroundStyle = isFillBackgroundEnabled ? Paint.Style.FILL_AND_STROKE : Paint.Style.STROKE;
-        progressBackgroundPaint.setStyle(progressBackgroundStyle);
-        progressBackgroundPaint.setStrokeWidth(progressBackgroundStrokeWidth);
-        progressBackgroundPaint.setColor(progressBackgroundColor);
-        progressBackgroundPaint.setAntiAlias(true);
-
-        dotPaint = new Paint();
-        dotPaint.setStrokeCap(Paint.Cap.ROUND);
-        dotPaint.setStrokeWidth(dotWidth);
-        dotPaint.setStyle(Paint.Style.FILL_AND_STROKE);
-        dotPaint.setColor(dotColor);
-        dotPaint.setAntiAlias(true);
-        circleBounds = new RectF();
+    private void init(@NonNull ProgressBarStyle style) {
+        progressDrawable = new CircularProgressDrawable(style);
+        progressDrawable.setCallback(this);
+        accessibilityManager = (AccessibilityManager) getContext().getSystemService(Context.ACCESSIBILITY_SERVICE);
     }
 
     @Override
@@ -173,12 +156,9 @@ public class CustomProgressBar extends View {
         int widthMode = MeasureSpec.getMode(widthMeasureSpec);
         int heightMode = MeasureSpec.getMode(heightMeasureSpec);
 
-        Rect textBoundsRect = new Rect();
+        progressDrawable.getLabelBounds(textBoundsRect);
 
-        float dotWidth = dotPaint.getStrokeWidth();
-        float progressWidth = progressPaint.getStrokeWidth();
-        float progressBackgroundWidth = progressBackgroundPaint.getStrokeWidth();
-        float strokeSizeOffset = (shouldDrawDot) ? Math.max(dotWidth, Math.max(progressWidth, progressBackgroundWidth)) : Math.max(progressWidth, progressBackgroundWidth);
+        float strokeSizeOffset = progressDrawable.getStrokeSizeOffset();
 
         int desiredSize = ((int) strokeSizeOffset) + convertdp2px(DESIRED_WIDTH_DP) +
                 Math.max(paddingBottom + paddingTop, paddingLeft + paddingRight);
@@ -219,111 +199,137 @@ public class CustomProgressBar extends View {
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
-        calculateBounds(w, h);
+        progressDrawable.setBounds(0, 0, w, h);
     }
 
     @Override
-    protected void onDetachedFromWindow() {
-        super.onDetachedFromWindow();
+    protected Parcelable onSaveInstanceState() {
+        SavedState savedState = new SavedState(super.onSaveInstanceState());
+        savedState.progress = getProgress();
+        savedState.maxProgress = getMaxProgress();
+        savedState.sweepAngle = progressDrawable.getTargetSweepAngle();
+        return savedState;
+    }
 
-        if (progressAnimator != null) {
-            progressAnimator.cancel();
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
         }
+
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        // an interrupted animation is not replayed, the bar comes back at its target
+        progressDrawable.restoreProgress(savedState.progress, savedState.maxProgress, savedState.sweepAngle);
     }
 
     @Override
-    protected void onDraw(Canvas canvas) {
-        drawProgressBackground(canvas);
-        drawProgress(canvas);
-        if (shouldDrawDot) drawDot(canvas);
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateAnimationState();
     }
 
-    //region draw methods
-    private void drawProgressBackground(Canvas canvas) {
-        canvas.drawArc(circleBounds, ANGLE_START_PROGRESS_BACKGROUND, ANGLE_END_PROGRESS_BACKGROUND,
-                false, progressBackgroundPaint);
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateAnimationState();
     }
 
-    private void drawProgress(Canvas canvas) {
-        canvas.drawArc(circleBounds, startAngle, sweepAngle, false, progressPaint);
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateAnimationState();
     }
 
-    private void drawDot(Canvas canvas) {
-        double angleRadians = Math.toRadians(startAngle + sweepAngle + 180);
-        float cos = (float) Math.cos(angleRadians);
-        float sin = (float) Math.sin(angleRadians);
-        float x = circleBounds.centerX() - radius * cos;
-        float y = circleBounds.centerY() - radius * sin;
-
-        canvas.drawPoint(x, y, dotPaint);
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        removeCallbacks(sendProgressAccessibilityEvent);
+        isAccessibilityEventScheduled = false;
+        // the window visibility still reads VISIBLE here, so hide the drawable explicitly; this
+        // finishes running animations, keeps new ones from starting while detached and leaves
+        // a running timer only its completion callback instead of a frame clock client
+        progressDrawable.setVisible(false, false);
+        progressDrawable.releaseBackgroundCache();
     }
-    //endregion
 
-    //region start and stop animation
-    private void startProgressAnimation(double oldCurrentProgress, final double finalAngle) {
-        final PropertyValuesHolder angleProperty = PropertyValuesHolder.ofInt(PROPERTY_ANGLE, sweepAngle, (int) finalAngle);
-
-        progressAnimator = ValueAnimator.ofObject(new TypeEvaluator<Double>() {
-            @Override
-            public Double evaluate(float fraction, Double startValue, Double endValue) {
-                return (startValue + (endValue - startValue) * fraction);
-            }
-        }, oldCurrentProgress, progressValue);
-        progressAnimator.setDuration(DEFAULT_ANIMATION_DURATION);
-        progressAnimator.setValues(angleProperty);
-        progressAnimator.setInterpolator(animationInterpolator);
-        progressAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                sweepAngle = (int) animation.getAnimatedValue(PROPERTY_ANGLE);
-                invalidate();
-            }
-        });
-        progressAnimator.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-            }
+    @Override
+    protected void onDraw(Canvas canvas) {
+        progressDrawable.draw(canvas);
+    }
 
-            @Override
-            public void onAnimationEnd(Animator animation) {
-            }
+    @Override
+    protected boolean verifyDrawable(@NonNull Drawable who) {
+        return who == progressDrawable || super.verifyDrawable(who);
+    }
 
-            @Override
-            public void onAnimationCancel(Animator animation) {
-                sweepAngle = (int) finalAngle;
-                invalidate();
-                progressAnimator = null;
-            }
+    //region accessibility
+    @Override
+    public CharSequence getAccessibilityClassName() {
+        return ProgressBar.class.getName();
+    }
 
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-            }
-        });
-        progressAnimator.start();
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        info.setClassName(ProgressBar.class.getName());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && !isIndeterminate()) {
+            info.setRangeInfo(AccessibilityNodeInfo.RangeInfo.obtain(AccessibilityNodeInfo.RangeInfo.RANGE_TYPE_FLOAT,
+                    0f, (float) getMaxProgress(), (float) getProgress()));
+        }
     }
 
-    private void stopProgressAnimation() {
-        if (progressAnimator != null) {
-            progressAnimator.cancel();
+    @Override
+    public void onInitializeAccessibilityEvent(AccessibilityEvent event) {
+        super.onInitializeAccessibilityEvent(event);
+        event.setClassName(ProgressBar.class.getName());
+        // always the target value, never a frame of the animation towards it
+        event.setItemCount((int) getMaxProgress());
+        event.setCurrentItemIndex((int) getProgress());
+    }
+
+    /**
+     * Announces the progress once a burst of updates has settled, at most once per
+     * {@link #ACCESSIBILITY_EVENT_MIN_INTERVAL_MILLIS}. Updates arriving while an announcement
+     * is pending are folded into it.
+     */
+    private void scheduleProgressAccessibilityEvent() {
+        if (isAccessibilityEventScheduled || accessibilityManager == null || !accessibilityManager.isEnabled()
+                || !ViewCompat.isAttachedToWindow(this)) {
+            return;
         }
+
+        long earliest = lastAccessibilityEventMillis + ACCESSIBILITY_EVENT_MIN_INTERVAL_MILLIS;
+        long delay = Math.max(ACCESSIBILITY_EVENT_DELAY_MILLIS, earliest - SystemClock.uptimeMillis());
+        isAccessibilityEventScheduled = true;
+        postDelayed(sendProgressAccessibilityEvent, delay);
     }
     //endregion
 
-    private void calculateBounds(int w, int h) {
-        radius = w / 2f;
-
-        float dotWidth = dotPaint.getStrokeWidth();
-        float progressWidth = progressPaint.getStrokeWidth();
-        float progressBackgroundWidth = progressBackgroundPaint.getStrokeWidth();
-        float strokeSizeOffset = (shouldDrawDot) ? Math.max(dotWidth, Math.max(progressWidth, progressBackgroundWidth)) : Math.max(progressWidth, progressBackgroundWidth); // to prevent progress or dot from drawing over the bounds
-        float halfOffset = strokeSizeOffset / 2f;
+    /**
+     * Lets animations run only while the bar can be seen and system animations are on. Hidden
+     * bars jump to their target values instead of animating and invalidating.
+     */
+    private void updateAnimationState() {
+        // called by the View constructor before init when a visibility attribute is set
+        if (progressDrawable == null) return;
 
-        circleBounds.left = halfOffset;
-        circleBounds.top = halfOffset;
-        circleBounds.right = w - halfOffset;
-        circleBounds.bottom = h - halfOffset;
+        boolean visible = ViewCompat.isAttachedToWindow(this) && getWindowVisibility() == VISIBLE && isShown();
+        progressDrawable.setVisible(visible, false);
+        if (visible) progressDrawable.setAnimationSuppressed(areSystemAnimationsDisabled());
+    }
 
-        radius = circleBounds.width() / 2f;
+    private boolean areSystemAnimationsDisabled() {
+        Context context = getContext();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null && powerManager.isPowerSaveMode()) return true;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getFloat(context.getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1f) == 0f;
+        }
+        return false;
     }
 
     private int convertdp2px(float dp) {
@@ -331,77 +337,165 @@ public class CustomProgressBar extends View {
         return (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp, metrics);
     }
 
-    private void invalidateView() {
-        calculateBounds(getWidth(), getHeight());
-        requestLayout();
-        invalidate();
+    //region get methods
+    @NonNull
+    public CircularProgressDrawable getProgressDrawable() {
+        return progressDrawable;
     }
 
-    //region get methods
     @ColorInt
     public int getProgressColor() {
-        return progressPaint.getColor();
+        return progressDrawable.getProgressColor();
     }
 
     @ColorInt
     public int getProgressBackgroundColor() {
-        return progressBackgroundPaint.getColor();
+        return progressDrawable.getProgressBackgroundColor();
     }
 
     public float getProgressStrokeWidth() {
-        return progressPaint.getStrokeWidth();
+        return progressDrawable.getProgressStrokeWidth();
     }
 
     public float getProgressBackgroundStrokeWidth() {
-        return progressBackgroundPaint.getStrokeWidth();
+        return progressDrawable.getProgressBackgroundStrokeWidth();
     }
 
     public boolean isDotEnabled() {
-        return shouldDrawDot;
+        return progressDrawable.isDotEnabled();
     }
 
     @ColorInt
     public int getDotColor() {
-        return dotPaint.getColor();
+        return progressDrawable.getDotColor();
     }
 
     public float getDotWidth() {
-        return dotPaint.getStrokeWidth();
+        return progressDrawable.getDotWidth();
     }
 
     @Cap
     public int getProgressStrokeCap() {
-        return (progressPaint.getStrokeCap() == Paint.Cap.ROUND) ? CAP_ROUND : CAP_STRAIGHT;
+        return progressDrawable.getProgressStrokeCap();
     }
 
     public double getProgress() {
-        return progressValue;
+        return progressDrawable.getProgress();
     }
 
     public double getMaxProgress() {
-        return maxProgressValue;
+        return progressDrawable.getMaxProgress();
     }
 
     public int getStartAngle() {
-        return startAngle;
+        return progressDrawable.getStartAngle();
     }
 
     @Direction
     public int getDirection() {
-        return direction;
+        return progressDrawable.getDirection();
     }
 
     public boolean isAnimationEnabled() {
-        return isAnimationEnabled;
+        return progressDrawable.isAnimationEnabled();
     }
 
     public boolean isFillBackgroundEnabled() {
-        return isFillBackgroundEnabled;
+        return progressDrawable.isFillBackgroundEnabled();
+    }
+
+    public boolean isBackgroundCacheEnabled() {
+        return progressDrawable.isBackgroundCacheEnabled();
+    }
+
+    public boolean isIndeterminate() {
+        return progressDrawable.isIndeterminate();
     }
 
     @NonNull
     public Interpolator getInterpolator() {
-        return animationInterpolator;
+        return progressDrawable.getInterpolator();
+    }
+
+    @AnimationMode
+    public int getAnimationMode() {
+        return progressDrawable.getAnimationMode();
+    }
+
+    @Nullable
+    public CircularProgressDrawable.TrackShape getTrackShape() {
+        return progressDrawable.getTrackShape();
+    }
+
+    public boolean isTimerRunning() {
+        return progressDrawable.isTimerRunning();
+    }
+
+    public int getMilestoneCount() {
+        return progressDrawable.getMilestoneCount();
+    }
+
+    public int getMajorTickCount() {
+        return progressDrawable.getMajorTickCount();
+    }
+
+    public int getMinorTicksPerMajor() {
+        return progressDrawable.getMinorTicksPerMajor();
+    }
+
+    @ColorInt
+    public int getTickColor() {
+        return progressDrawable.getTickColor();
+    }
+
+    @ColorInt
+    public int getTickHighlightColor() {
+        return progressDrawable.getTickHighlightColor();
+    }
+
+    public int getSegmentCount() {
+        return progressDrawable.getSegmentCount();
+    }
+
+    public double getSegmentValue(int index) {
+        return progressDrawable.getSegmentValue(index);
+    }
+
+    @Nullable
+    @ColorInt
+    public int[] getProgressGradientColors() {
+        return progressDrawable.getProgressGradientColors();
+    }
+
+    @LabelMode
+    public int getLabelMode() {
+        return progressDrawable.getLabelMode();
+    }
+
+    @ColorInt
+    public int getLabelColor() {
+        return progressDrawable.getLabelColor();
+    }
+
+    public int getLabelTextSize() {
+        return progressDrawable.getLabelTextSize();
+    }
+
+    @Nullable
+    public CircularProgressDrawable.LabelFormatter getLabelFormatter() {
+        return progressDrawable.getLabelFormatter();
+    }
+
+    public boolean isMetricsEnabled() {
+        return progressDrawable.isMetricsEnabled();
+    }
+
+    /**
+     * @see CircularProgressDrawable#getMetrics()
+     */
+    @Nullable
+    public ProgressBarMetrics getMetrics() {
+        return progressDrawable.getMetrics();
     }
 
     @Nullable
@@ -412,13 +506,11 @@ public class CustomProgressBar extends View {
 
     //region set methods
     public void setProgressColor(@ColorInt int color) {
-        progressPaint.setColor(color);
-        invalidate();
+        progressDrawable.setProgressColor(color);
     }
 
     public void setProgressBackgroundColor(@ColorInt int color) {
-        progressBackgroundPaint.setColor(color);
-        invalidate();
+        progressDrawable.setProgressBackgroundColor(color);
     }
 
     public void setProgressStrokeWidthDp(@Dimension int strokeWidth) {
@@ -426,8 +518,8 @@ public class CustomProgressBar extends View {
     }
 
     public void setProgressStrokeWidthPx(@Dimension int strokeWidth) {
-        progressPaint.setStrokeWidth(strokeWidth);
-        invalidateView();
+        progressDrawable.setProgressStrokeWidthPx(strokeWidth);
+        requestLayout();
     }
 
     public void setProgressBackgroundStrokeWidthDp(@Dimension int strokeWidth) {
@@ -435,67 +527,58 @@ public class CustomProgressBar extends View {
     }
 
     public void setProgressBackgroundStrokeWidthPx(@Dimension int strokeWidth) {
-        progressBackgroundPaint.setStrokeWidth(strokeWidth);
-        invalidateView();
+        progressDrawable.setProgressBackgroundStrokeWidthPx(strokeWidth);
+        requestLayout();
     }
 
     public void setMaxProgress(double maxProgress) {
-        maxProgressValue = maxProgress;
-        if (maxProgressValue < progressValue) {
-            setCurrentProgress(maxProgress);
+        if (maxProgress < getProgress()) {
+            setProgress(maxProgress, maxProgress);
+            return;
         }
-        invalidate();
+        progressDrawable.setMaxProgress(maxProgress);
     }
 
     public void setCurrentProgress(double currentProgress) {
-        if (currentProgress > maxProgressValue) {
-            maxProgressValue = currentProgress;
-        }
-        setProgress(currentProgress, maxProgressValue);
+        setProgress(currentProgress, Math.max(currentProgress, getMaxProgress()));
     }
 
-    public void setProgress(double current, double max) {
-        final double finalAngle;
+    /**
+     * Thread-safe variant of {@link #setCurrentProgress(double)}. Only the latest value posted
+     * before the next frame is applied, so the listener fires at most once per frame.
+     */
+    public void postProgress(double currentProgress) {
+        pendingProgressBits.set(Double.doubleToRawLongBits(currentProgress));
 
-        if (direction == DIRECTION_COUNTERCLOCKWISE) {
-            finalAngle = -(current / max * 360);
-        } else {
-            finalAngle = current / max * 360;
+        if (isProgressFrameScheduled.compareAndSet(false, true)) {
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                scheduleProgressFrame.run();
+            } else {
+                MAIN_HANDLER.post(scheduleProgressFrame);
+            }
         }
+    }
 
-        double oldCurrentProgress = progressValue;
-
-        maxProgressValue = max;
-        progressValue = Math.min(current, max);
+    public void setProgress(double current, double max) {
+        progressDrawable.setProgress(current, max);
+        scheduleProgressAccessibilityEvent();
 
         if (onProgressChangeListener != null) {
-            onProgressChangeListener.onProgressChanged(progressValue, maxProgressValue);
-        }
-
-        stopProgressAnimation();
-
-        if (isAnimationEnabled) {
-            startProgressAnimation(oldCurrentProgress, finalAngle);
-        } else {
-            sweepAngle = (int) finalAngle;
-            invalidate();
+            onProgressChangeListener.onProgressChanged(getProgress(), getMaxProgress());
+            progressDrawable.onListenerDispatched();
         }
     }
 
     public void setShouldDrawDot(boolean shouldDrawDot) {
-        this.shouldDrawDot = shouldDrawDot;
+        progressDrawable.setShouldDrawDot(shouldDrawDot);
 
-        if (dotPaint.getStrokeWidth() > progressPaint.getStrokeWidth()) {
+        if (getDotWidth() > getProgressStrokeWidth()) {
             requestLayout();
-            return;
         }
-
-        invalidate();
     }
 
     public void setDotColor(@ColorInt int color) {
-        dotPaint.setColor(color);
-        invalidate();
+        progressDrawable.setDotColor(color);
     }
 
     public void setDotWidthDp(@Dimension int width) {
@@ -503,46 +586,196 @@ public class CustomProgressBar extends View {
     }
 
     public void setDotWidthPx(@Dimension int width) {
-        dotPaint.setStrokeWidth(width);
-        invalidateView();
+        progressDrawable.setDotWidthPx(width);
+        requestLayout();
     }
 
     public void setStartAngle(@IntRange(from = 0, to = 360) int startAngle) {
-        this.startAngle = startAngle;
-        invalidate();
+        progressDrawable.setStartAngle(startAngle);
     }
 
     public void setDirection(@Direction int direction) {
-        this.direction = direction;
-        invalidate();
+        progressDrawable.setDirection(direction);
     }
 
     public void setProgressStrokeCap(@Cap int cap) {
-        Paint.Cap paintCap = (cap == CAP_ROUND) ? Paint.Cap.ROUND : Paint.Cap.BUTT;
-        if (progressPaint.getStrokeCap() != paintCap) {
-            progressPaint.setStrokeCap(paintCap);
-            invalidate();
-        }
+        progressDrawable.setProgressStrokeCap(cap);
     }
 
     public void setAnimationEnabled(boolean enableAnimation) {
-        isAnimationEnabled = enableAnimation;
-        if (!enableAnimation) stopProgressAnimation();
+        progressDrawable.setAnimationEnabled(enableAnimation);
     }
 
     public void setFillBackgroundEnabled(boolean fillBackgroundEnabled) {
-        if (fillBackgroundEnabled == isFillBackgroundEnabled) return;
+        progressDrawable.setFillBackgroundEnabled(fillBackgroundEnabled);
+    }
 
-        isFillBackgroundEnabled = fillBackgroundEnabled;
+    /**
+     * @see CircularProgressDrawable#setBackgroundCacheEnabled(boolean)
+     */
+    public void setBackgroundCacheEnabled(boolean backgroundCacheEnabled) {
+        progressDrawable.setBackgroundCacheEnabled(backgroundCacheEnabled);
+    }
 
-        Paint.Style style = fillBackgroundEnabled ? Paint.Style.FILL_AND_STROKE : Paint.Style.STROKE;
-        progressBackgroundPaint.setStyle(style);
+    public void setInterpolator(@NonNull Interpolator interpolator) {
+        progressDrawable.setInterpolator(interpolator);
+    }
 
-        invalidate();
+    /**
+     * @see CircularProgressDrawable#setAnimationMode(int)
+     */
+    public void setAnimationMode(@AnimationMode int animationMode) {
+        progressDrawable.setAnimationMode(animationMode);
     }
 
-    public void setInterpolator(@NonNull Interpolator interpolator) {
-        animationInterpolator = interpolator;
+    public void setSpring(float stiffness, float dampingRatio) {
+        progressDrawable.setSpring(stiffness, dampingRatio);
+    }
+
+    /**
+     * @see CircularProgressDrawable#setTrackShape(CircularProgressDrawable.TrackShape)
+     */
+    public void setTrackShape(@Nullable CircularProgressDrawable.TrackShape trackShape) {
+        progressDrawable.setTrackShape(trackShape);
+    }
+
+    /**
+     * @see CircularProgressDrawable#setMilestones(double[], int[])
+     */
+    public void setMilestones(@Nullable double[] thresholds, @Nullable @ColorInt int[] colors) {
+        progressDrawable.setMilestones(thresholds, colors);
+    }
+
+    public void addOnMilestoneListener(@NonNull CircularProgressDrawable.OnMilestoneListener listener) {
+        progressDrawable.addOnMilestoneListener(listener);
+    }
+
+    public void removeOnMilestoneListener(@NonNull CircularProgressDrawable.OnMilestoneListener listener) {
+        progressDrawable.removeOnMilestoneListener(listener);
+    }
+
+    /**
+     * @see CircularProgressDrawable#startTimer(int, long, long)
+     */
+    public void startTimer(@TimerMode int timerMode, long startUptimeMillis, long durationMillis) {
+        progressDrawable.startTimer(timerMode, startUptimeMillis, durationMillis);
+    }
+
+    public void stopTimer() {
+        progressDrawable.stopTimer();
+    }
+
+    public void setOnTimerCompleteListener(@Nullable CircularProgressDrawable.OnTimerCompleteListener listener) {
+        progressDrawable.setOnTimerCompleteListener(listener);
+    }
+
+    /**
+     * @see CircularProgressDrawable#setTickMarks(int, int)
+     */
+    public void setTickMarks(@IntRange(from = 0) int majorTickCount, @IntRange(from = 0) int minorTicksPerMajor) {
+        progressDrawable.setTickMarks(majorTickCount, minorTicksPerMajor);
+    }
+
+    /**
+     * Tick sizes in dp, 0 picks a size from the progress stroke width.
+     */
+    public void setTickMarkSizeDp(@Dimension int majorLength, @Dimension int minorLength,
+                                  @Dimension int width, @Dimension int gap) {
+        progressDrawable.setTickMarkSizePx(convertdp2px(majorLength), convertdp2px(minorLength),
+                convertdp2px(width), convertdp2px(gap));
+    }
+
+    public void setTickColor(@ColorInt int color) {
+        progressDrawable.setTickColor(color);
+    }
+
+    public void setTickHighlightColor(@ColorInt int color) {
+        progressDrawable.setTickHighlightColor(color);
+    }
+
+    /**
+     * @see CircularProgressDrawable#setSegments(double[], int[])
+     */
+    public void setSegments(@Nullable double[] values, @Nullable @ColorInt int[] colors) {
+        progressDrawable.setSegments(values, colors);
+    }
+
+    public void setSegmentValue(int index, double value) {
+        progressDrawable.setSegmentValue(index, value);
+    }
+
+    public void setProgressBarStyle(@NonNull ProgressBarStyle style) {
+        progressDrawable.applyStyle(style);
+        setIndeterminate(style.isIndeterminate());
+        requestLayout();
+    }
+
+    /**
+     * Switches to a busy spinner of unknown duration.
+     *
+     * @see CircularProgressDrawable#setIndeterminate(boolean)
+     */
+    public void setIndeterminate(boolean indeterminate) {
+        progressDrawable.setIndeterminate(indeterminate);
+    }
+
+    /**
+     * @see CircularProgressDrawable#setProgressGradient(int[], float[])
+     */
+    public void setProgressGradient(@Nullable @ColorInt int[] colors, @Nullable float[] positions) {
+        progressDrawable.setProgressGradient(colors, positions);
+    }
+
+    /**
+     * @see CircularProgressDrawable#setLabelMode(int)
+     */
+    public void setLabelMode(@LabelMode int labelMode) {
+        progressDrawable.setLabelMode(labelMode);
+        requestLayout();
+    }
+
+    public void setLabelColor(@ColorInt int color) {
+        progressDrawable.setLabelColor(color);
+    }
+
+    public void setLabelTextSizeSp(float textSize) {
+        DisplayMetrics metrics = getResources().getDisplayMetrics();
+        setLabelTextSizePx((int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, textSize, metrics));
+    }
+
+    /**
+     * @param textSize size in pixels, or 0 to scale the label with the ring
+     */
+    public void setLabelTextSizePx(@Dimension int textSize) {
+        progressDrawable.setLabelTextSizePx(textSize);
+        requestLayout();
+    }
+
+    public void setLabelFormatter(@Nullable CircularProgressDrawable.LabelFormatter formatter) {
+        progressDrawable.setLabelFormatter(formatter);
+        requestLayout();
+    }
+
+    /**
+     * Starts or stops recording draw, invalidation, animation and listener counters for this bar.
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        progressDrawable.setMetricsEnabled(metricsEnabled);
+    }
+
+    /**
+     * @see CircularProgressDrawable#addOnAnimatedProgressListener(CircularProgressDrawable.OnAnimatedProgressListener)
+     */
+    public void addOnAnimatedProgressListener(@NonNull CircularProgressDrawable.OnAnimatedProgressListener listener) {
+        progressDrawable.addOnAnimatedProgressListener(listener);
+    }
+
+    public void removeOnAnimatedProgressListener(@NonNull CircularProgressDrawable.OnAnimatedProgressListener listener) {
+        progressDrawable.removeOnAnimatedProgressListener(listener);
+    }
+
+    public void setAnimatedProgressThrottle(long minIntervalMillis, double minProgressStep) {
+        progressDrawable.setAnimatedProgressThrottle(minIntervalMillis, minProgressStep);
     }
 
     public void setOnProgressChangeListener(@Nullable OnProgressChangeListener onProgressChangeListener) {
@@ -560,8 +793,60 @@ public class CustomProgressBar extends View {
     @IntDef({CAP_ROUND, CAP_STRAIGHT})
     public @interface Cap {
     }
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({LABEL_NONE, LABEL_PERCENT, LABEL_VALUE, LABEL_CUSTOM})
+    public @interface LabelMode {
+    }
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({ANIMATION_TWEEN, ANIMATION_SPRING})
+    public @interface AnimationMode {
+    }
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({TIMER_ELAPSED, TIMER_COUNTDOWN})
+    public @interface TimerMode {
+    }
     //endregion
 
+    static class SavedState extends BaseSavedState {
+        double progress;
+        double maxProgress;
+        float sweepAngle;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel source) {
+            super(source);
+            progress = source.readDouble();
+            maxProgress = source.readDouble();
+            sweepAngle = source.readFloat();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeDouble(progress);
+            out.writeDouble(maxProgress);
+            out.writeFloat(sweepAngle);
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+            @Override
+            public SavedState createFromParcel(Parcel source) {
+                return new SavedState(source);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+        };
+    }
+
     public interface OnProgressChangeListener {
         void onProgressChanged(double progress, double maxProgress);
     }
@@ -0,0 +1,68 @@
+package com.example.circularpb;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Text of the centre label, produced without allocating while a progress animation runs.
+ */
+final class LabelText {
+
+    // two longs with their signs and the separator
+    static final int VALUE_BUFFER_SIZE = 2 * 20 + 1;
+
+    // built once per process, then shared by every bar
+    private static final String[] PERCENT_LABELS = new String[101];
+
+    static {
+        for (int i = 0; i < PERCENT_LABELS.length; i++) {
+            PERCENT_LABELS[i] = i + "%";
+        }
+    }
+
+    private LabelText() {
+    }
+
+    /**
+     * @return the cached "n%" string for a percentage clamped to 0..100
+     */
+    @NonNull
+    static String percent(int percent) {
+        return PERCENT_LABELS[Math.max(0, Math.min(100, percent))];
+    }
+
+    /**
+     * Writes "value/max" into {@code out}, which must hold {@link #VALUE_BUFFER_SIZE} chars.
+     *
+     * @return the number of chars written
+     */
+    static int formatValue(long value, long max, @NonNull char[] out) {
+        int count = writeLong(value, out, 0);
+        out[count++] = '/';
+        return writeLong(max, out, count);
+    }
+
+    private static int writeLong(long value, char[] out, int start) {
+        if (value == 0) {
+            out[start] = '0';
+            return start + 1;
+        }
+
+        int position = start;
+        if (value < 0) {
+            out[position++] = '-';
+        }
+
+        // digits are produced from the last one, so write them reversed and flip in place
+        int digitsStart = position;
+        while (value != 0) {
+            out[position++] = (char) ('0' + Math.abs(value % 10));
+            value /= 10;
+        }
+        for (int i = digitsStart, j = position - 1; i < j; i++, j--) {
+            char digit = out[i];
+            out[i] = out[j];
+            out[j] = digit;
+        }
+        return position;
+    }
+}
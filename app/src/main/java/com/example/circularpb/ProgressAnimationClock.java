@@ -0,0 +1,136 @@
+package com.example.circularpb;
+
+import android.view.Choreographer;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.util.ArrayList;
+
+/**
+ * Process wide frame source for progress animations.
+ * <p>
+ * Every animating drawable registers a {@link FrameClient} here instead of posting its own
+ * frame callback, so any number of bars are stepped from a single
+ * {@link Choreographer.FrameCallback} per frame. The callback is not rescheduled once no client
+ * is left. Must only be used from the main thread.
+ */
+final class ProgressAnimationClock implements Choreographer.FrameCallback {
+
+    private static final int NOT_REGISTERED = -1;
+
+    private static ProgressAnimationClock instance;
+
+    private final ArrayList<FrameClient> clients = new ArrayList<>();
+    private boolean isFrameScheduled;
+    private boolean hasRemovedClients;
+    private boolean isManuallyDriven;
+
+    static ProgressAnimationClock getInstance() {
+        if (instance == null) {
+            instance = new ProgressAnimationClock();
+        }
+        return instance;
+    }
+
+    private ProgressAnimationClock() {
+    }
+
+    void add(FrameClient client) {
+        if (client.index != NOT_REGISTERED) return;
+
+        client.index = clients.size();
+        clients.add(client);
+        scheduleFrame();
+    }
+
+    void remove(FrameClient client) {
+        if (client.index == NOT_REGISTERED) return;
+
+        // slots are cleared rather than removed so a frame in progress keeps its indices
+        clients.set(client.index, null);
+        client.index = NOT_REGISTERED;
+        hasRemovedClients = true;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        isFrameScheduled = false;
+
+        // clients added while dispatching get their first frame on the next pass
+        int count = clients.size();
+        for (int i = 0; i < count; i++) {
+            FrameClient client = clients.get(i);
+            if (client != null) {
+                client.onAnimationFrame(frameTimeNanos);
+            }
+        }
+
+        compactClients();
+        if (!clients.isEmpty()) {
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * Stops posting frame callbacks, so frames only arrive through {@link #doFrame(long)} with
+     * the caller's frame times. Lets rendering tests step animations deterministically.
+     */
+    @VisibleForTesting
+    void setManuallyDriven(boolean manuallyDriven) {
+        isManuallyDriven = manuallyDriven;
+    }
+
+    /**
+     * Unregisters every client, so animations left running by one test do not receive the
+     * next test's frames.
+     */
+    @VisibleForTesting
+    void removeAllClients() {
+        for (int i = 0; i < clients.size(); i++) {
+            FrameClient client = clients.get(i);
+            if (client != null) {
+                client.index = NOT_REGISTERED;
+            }
+        }
+        clients.clear();
+        hasRemovedClients = false;
+    }
+
+    private void scheduleFrame() {
+        if (isFrameScheduled || isManuallyDriven) return;
+
+        isFrameScheduled = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void compactClients() {
+        if (!hasRemovedClients) return;
+
+        int size = clients.size();
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            FrameClient client = clients.get(read);
+            if (client != null) {
+                client.index = write;
+                clients.set(write++, client);
+            }
+        }
+        for (int i = size - 1; i >= write; i--) {
+            clients.remove(i);
+        }
+        hasRemovedClients = false;
+    }
+
+    /**
+     * Receives frames while registered. Clients remove themselves once they need no more frames.
+     */
+    abstract static class FrameClient {
+        private int index = NOT_REGISTERED;
+
+        abstract void onAnimationFrame(long frameTimeNanos);
+
+        final boolean isRegistered() {
+            return index != NOT_REGISTERED;
+        }
+    }
+}
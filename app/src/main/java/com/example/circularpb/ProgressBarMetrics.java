@@ -0,0 +1,164 @@
+package com.example.circularpb;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Render and animation counters of a single progress bar.
+ * <p>
+ * Recording is off by default and costs a single null check per event until enabled through
+ * {@link CircularProgressDrawable#setMetricsEnabled(boolean)}. Instances handed out by
+ * {@link CircularProgressDrawable#getMetrics()} are snapshots and never change afterwards.
+ */
+public final class ProgressBarMetrics {
+
+    long drawCount;
+    long drawTimeNanos;
+    long invalidationCount;
+    long partialInvalidationCount;
+    long skippedInvalidationCount;
+    long invalidatedArea;
+    long lastInvalidatedArea;
+    long animationsStarted;
+    long animationsCompleted;
+    long animationsCancelled;
+    long animationsRetargeted;
+    long animationFrames;
+    long skippedAnimationFrames;
+    long listenerDispatches;
+    long shadersBuilt;
+
+    ProgressBarMetrics() {
+    }
+
+    @NonNull
+    ProgressBarMetrics snapshot() {
+        ProgressBarMetrics snapshot = new ProgressBarMetrics();
+        snapshot.drawCount = drawCount;
+        snapshot.drawTimeNanos = drawTimeNanos;
+        snapshot.invalidationCount = invalidationCount;
+        snapshot.partialInvalidationCount = partialInvalidationCount;
+        snapshot.skippedInvalidationCount = skippedInvalidationCount;
+        snapshot.invalidatedArea = invalidatedArea;
+        snapshot.lastInvalidatedArea = lastInvalidatedArea;
+        snapshot.animationsStarted = animationsStarted;
+        snapshot.animationsCompleted = animationsCompleted;
+        snapshot.animationsCancelled = animationsCancelled;
+        snapshot.animationsRetargeted = animationsRetargeted;
+        snapshot.animationFrames = animationFrames;
+        snapshot.skippedAnimationFrames = skippedAnimationFrames;
+        snapshot.listenerDispatches = listenerDispatches;
+        snapshot.shadersBuilt = shadersBuilt;
+        return snapshot;
+    }
+
+    public long getDrawCount() {
+        return drawCount;
+    }
+
+    /**
+     * Total time spent drawing, in nanoseconds.
+     */
+    public long getDrawTimeNanos() {
+        return drawTimeNanos;
+    }
+
+    /**
+     * All invalidations, of the whole bar or of the changed part of the ring.
+     */
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    /**
+     * Invalidations limited to the part of the ring changed by a sweep change, see
+     * {@link #getInvalidatedArea()}.
+     */
+    public long getPartialInvalidationCount() {
+        return partialInvalidationCount;
+    }
+
+    /**
+     * Sweep changes that were too small to change any pixel and were not invalidated.
+     */
+    public long getSkippedInvalidationCount() {
+        return skippedInvalidationCount;
+    }
+
+    /**
+     * Sum of the areas, in square pixels, of all partial invalidations.
+     */
+    public long getInvalidatedArea() {
+        return invalidatedArea;
+    }
+
+    public long getLastInvalidatedArea() {
+        return lastInvalidatedArea;
+    }
+
+    public long getAnimationsStarted() {
+        return animationsStarted;
+    }
+
+    public long getAnimationsCompleted() {
+        return animationsCompleted;
+    }
+
+    /**
+     * Animations stopped before their end, e.g. by a new progress value or a detach.
+     */
+    public long getAnimationsCancelled() {
+        return animationsCancelled;
+    }
+
+    /**
+     * Progress changes that redirected a running spring instead of starting a new animation.
+     */
+    public long getAnimationsRetargeted() {
+        return animationsRetargeted;
+    }
+
+    public long getAnimationFrames() {
+        return animationFrames;
+    }
+
+    /**
+     * Estimated frames, at 60 fps, not animated because the bar was hidden or system
+     * animations were off. The bar jumped to its target instead.
+     */
+    public long getSkippedAnimationFrames() {
+        return skippedAnimationFrames;
+    }
+
+    public long getListenerDispatches() {
+        return listenerDispatches;
+    }
+
+    /**
+     * Gradient shaders created for the progress arc. Stays flat while progress animates.
+     */
+    public long getShadersBuilt() {
+        return shadersBuilt;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "ProgressBarMetrics{" +
+                "drawCount=" + drawCount +
+                ", drawTimeNanos=" + drawTimeNanos +
+                ", invalidationCount=" + invalidationCount +
+                ", partialInvalidationCount=" + partialInvalidationCount +
+                ", skippedInvalidationCount=" + skippedInvalidationCount +
+                ", invalidatedArea=" + invalidatedArea +
+                ", lastInvalidatedArea=" + lastInvalidatedArea +
+                ", animationsStarted=" + animationsStarted +
+                ", animationsCompleted=" + animationsCompleted +
+                ", animationsCancelled=" + animationsCancelled +
+                ", animationsRetargeted=" + animationsRetargeted +
+                ", animationFrames=" + animationFrames +
+                ", skippedAnimationFrames=" + skippedAnimationFrames +
+                ", listenerDispatches=" + listenerDispatches +
+                ", shadersBuilt=" + shadersBuilt +
+                '}';
+    }
+}
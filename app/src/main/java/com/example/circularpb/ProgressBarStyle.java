@@ -0,0 +1,384 @@
+package com.example.circularpb;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.Dimension;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Immutable look of a progress bar: colours, stroke widths, cap, direction, dot, fill and label.
+ * <p>
+ * Build one once, from attributes or in code, and hand it to every bar or drawable sharing the
+ * look. Applying a style copies a few fields into existing paints, so bars created from it skip
+ * attribute parsing entirely.
+ */
+public final class ProgressBarStyle {
+
+    @ColorInt
+    static final int DEFAULT_PROGRESS_COLOR = 0xFF28B51B;
+    @ColorInt
+    static final int DEFAULT_PROGRESS_BACKGROUND_COLOR = 0xFFE0E0E0;
+    static final int DEFAULT_STROKE_WIDTH_DP = 8;
+    static final int DEFAULT_PROGRESS_START_ANGLE = 270;
+    @ColorInt
+    static final int DEFAULT_LABEL_COLOR = 0xFF212121;
+
+    // default styles only depend on the density, which rarely changes during a process
+    @Nullable
+    private static volatile ProgressBarStyle defaultStyle;
+
+    @ColorInt
+    private final int progressColor;
+    @ColorInt
+    private final int progressBackgroundColor;
+    private final int progressStrokeWidth;
+    private final int progressBackgroundStrokeWidth;
+    @CustomProgressBar.Cap
+    private final int progressStrokeCap;
+    @CustomProgressBar.Direction
+    private final int direction;
+    private final int startAngle;
+    private final boolean shouldDrawDot;
+    @ColorInt
+    private final int dotColor;
+    private final int dotWidth;
+    private final boolean isFillBackgroundEnabled;
+    private final boolean isBackgroundCacheEnabled;
+    private final boolean isAnimationEnabled;
+    private final boolean isIndeterminate;
+    @CustomProgressBar.LabelMode
+    private final int labelMode;
+    @ColorInt
+    private final int labelColor;
+    private final int labelTextSize;
+    private final float density;
+
+    private ProgressBarStyle(Builder builder) {
+        progressColor = builder.progressColor;
+        progressBackgroundColor = builder.progressBackgroundColor;
+        progressStrokeWidth = builder.progressStrokeWidth;
+        progressBackgroundStrokeWidth = builder.progressBackgroundStrokeWidth;
+        progressStrokeCap = builder.progressStrokeCap;
+        direction = builder.direction;
+        startAngle = builder.startAngle;
+        shouldDrawDot = builder.shouldDrawDot;
+        dotColor = builder.dotColor;
+        dotWidth = builder.dotWidth;
+        isFillBackgroundEnabled = builder.isFillBackgroundEnabled;
+        isBackgroundCacheEnabled = builder.isBackgroundCacheEnabled;
+        isAnimationEnabled = builder.isAnimationEnabled;
+        isIndeterminate = builder.isIndeterminate;
+        labelMode = builder.labelMode;
+        labelColor = builder.labelColor;
+        labelTextSize = builder.labelTextSize;
+        density = builder.density;
+    }
+
+    /**
+     * The look of a bar created without attributes. Cached per display density.
+     */
+    @NonNull
+    public static ProgressBarStyle getDefault(@NonNull Resources resources) {
+        ProgressBarStyle style = defaultStyle;
+        if (style == null || style.density != resources.getDisplayMetrics().density) {
+            style = new Builder(resources).build();
+            defaultStyle = style;
+        }
+        return style;
+    }
+
+    /**
+     * Parses the {@code CustomProgressBar} attributes once. Unset attributes keep the defaults
+     * used by the XML constructor, including animation being enabled.
+     */
+    @NonNull
+    public static ProgressBarStyle fromAttributes(@NonNull Context context, @Nullable AttributeSet attrs) {
+        if (attrs == null) return getDefault(context.getResources());
+
+        Builder builder = new Builder(context.getResources());
+        TypedArray attributes = context.obtainStyledAttributes(attrs, R.styleable.CustomProgressBar);
+        int progressColor = attributes.getColor(R.styleable.CustomProgressBar_progressColor, builder.progressColor);
+        int progressStrokeWidth = attributes.getDimensionPixelSize(R.styleable.CustomProgressBar_progressStrokeWidth, builder.progressStrokeWidth);
+        builder.setProgressColor(progressColor)
+                .setProgressBackgroundColor(attributes.getColor(R.styleable.CustomProgressBar_progressBackgroundColor, builder.progressBackgroundColor))
+                .setProgressStrokeWidthPx(progressStrokeWidth)
+                .setProgressBackgroundStrokeWidthPx(attributes.getDimensionPixelSize(R.styleable.CustomProgressBar_progressBackgroundStrokeWidth, progressStrokeWidth))
+                .setShouldDrawDot(attributes.getBoolean(R.styleable.CustomProgressBar_drawDot, true))
+                .setDotColor(attributes.getColor(R.styleable.CustomProgressBar_dotColor, progressColor))
+                .setDotWidthPx(attributes.getDimensionPixelSize(R.styleable.CustomProgressBar_dotWidth, progressStrokeWidth))
+                .setStartAngle(attributes.getInt(R.styleable.CustomProgressBar_startAngle, DEFAULT_PROGRESS_START_ANGLE))
+                .setAnimationEnabled(attributes.getBoolean(R.styleable.CustomProgressBar_enableProgressAnimation, true))
+                .setFillBackgroundEnabled(attributes.getBoolean(R.styleable.CustomProgressBar_fillBackground, false))
+                .setBackgroundCacheEnabled(attributes.getBoolean(R.styleable.CustomProgressBar_cacheBackground, false))
+                .setDirection(attributes.getInt(R.styleable.CustomProgressBar_direction, CustomProgressBar.DIRECTION_COUNTERCLOCKWISE))
+                .setProgressStrokeCap(attributes.getInt(R.styleable.CustomProgressBar_progressCap, CustomProgressBar.CAP_ROUND))
+                .setIndeterminate(attributes.getBoolean(R.styleable.CustomProgressBar_progressIndeterminate, false))
+                .setLabelMode(attributes.getInt(R.styleable.CustomProgressBar_labelMode, CustomProgressBar.LABEL_NONE))
+                .setLabelColor(attributes.getColor(R.styleable.CustomProgressBar_labelColor, DEFAULT_LABEL_COLOR))
+                .setLabelTextSizePx(attributes.getDimensionPixelSize(R.styleable.CustomProgressBar_labelTextSize, 0));
+        attributes.recycle();
+        return builder.build();
+    }
+
+    //region get methods
+    @ColorInt
+    public int getProgressColor() {
+        return progressColor;
+    }
+
+    @ColorInt
+    public int getProgressBackgroundColor() {
+        return progressBackgroundColor;
+    }
+
+    public int getProgressStrokeWidth() {
+        return progressStrokeWidth;
+    }
+
+    public int getProgressBackgroundStrokeWidth() {
+        return progressBackgroundStrokeWidth;
+    }
+
+    @CustomProgressBar.Cap
+    public int getProgressStrokeCap() {
+        return progressStrokeCap;
+    }
+
+    @CustomProgressBar.Direction
+    public int getDirection() {
+        return direction;
+    }
+
+    public int getStartAngle() {
+        return startAngle;
+    }
+
+    public boolean isDotEnabled() {
+        return shouldDrawDot;
+    }
+
+    @ColorInt
+    public int getDotColor() {
+        return dotColor;
+    }
+
+    public int getDotWidth() {
+        return dotWidth;
+    }
+
+    public boolean isFillBackgroundEnabled() {
+        return isFillBackgroundEnabled;
+    }
+
+    public boolean isBackgroundCacheEnabled() {
+        return isBackgroundCacheEnabled;
+    }
+
+    public boolean isAnimationEnabled() {
+        return isAnimationEnabled;
+    }
+
+    public boolean isIndeterminate() {
+        return isIndeterminate;
+    }
+
+    @CustomProgressBar.LabelMode
+    public int getLabelMode() {
+        return labelMode;
+    }
+
+    @ColorInt
+    public int getLabelColor() {
+        return labelColor;
+    }
+
+    /**
+     * @return the label text size in pixels, or 0 when it scales with the ring
+     */
+    public int getLabelTextSize() {
+        return labelTextSize;
+    }
+    //endregion
+
+    public static final class Builder {
+        @ColorInt
+        private int progressColor = DEFAULT_PROGRESS_COLOR;
+        @ColorInt
+        private int progressBackgroundColor = DEFAULT_PROGRESS_BACKGROUND_COLOR;
+        private int progressStrokeWidth;
+        private int progressBackgroundStrokeWidth;
+        @CustomProgressBar.Cap
+        private int progressStrokeCap = CustomProgressBar.CAP_ROUND;
+        @CustomProgressBar.Direction
+        private int direction = CustomProgressBar.DIRECTION_COUNTERCLOCKWISE;
+        private int startAngle = DEFAULT_PROGRESS_START_ANGLE;
+        private boolean shouldDrawDot = true;
+        @ColorInt
+        private int dotColor = DEFAULT_PROGRESS_COLOR;
+        private int dotWidth;
+        private boolean isFillBackgroundEnabled;
+        private boolean isBackgroundCacheEnabled;
+        private boolean isAnimationEnabled;
+        private boolean isIndeterminate;
+        @CustomProgressBar.LabelMode
+        private int labelMode = CustomProgressBar.LABEL_NONE;
+        @ColorInt
+        private int labelColor = DEFAULT_LABEL_COLOR;
+        private int labelTextSize;
+        private final float density;
+
+        public Builder(@NonNull Resources resources) {
+            density = resources.getDisplayMetrics().density;
+            int strokeWidth = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
+                    DEFAULT_STROKE_WIDTH_DP, resources.getDisplayMetrics());
+            progressStrokeWidth = strokeWidth;
+            progressBackgroundStrokeWidth = strokeWidth;
+            dotWidth = strokeWidth;
+        }
+
+        public Builder(@NonNull ProgressBarStyle style) {
+            progressColor = style.progressColor;
+            progressBackgroundColor = style.progressBackgroundColor;
+            progressStrokeWidth = style.progressStrokeWidth;
+            progressBackgroundStrokeWidth = style.progressBackgroundStrokeWidth;
+            progressStrokeCap = style.progressStrokeCap;
+            direction = style.direction;
+            startAngle = style.startAngle;
+            shouldDrawDot = style.shouldDrawDot;
+            dotColor = style.dotColor;
+            dotWidth = style.dotWidth;
+            isFillBackgroundEnabled = style.isFillBackgroundEnabled;
+            isBackgroundCacheEnabled = style.isBackgroundCacheEnabled;
+            isAnimationEnabled = style.isAnimationEnabled;
+            isIndeterminate = style.isIndeterminate;
+            labelMode = style.labelMode;
+            labelColor = style.labelColor;
+            labelTextSize = style.labelTextSize;
+            density = style.density;
+        }
+
+        @NonNull
+        public Builder setProgressColor(@ColorInt int color) {
+            progressColor = color;
+            return this;
+        }
+
+        @NonNull
+        public Builder setProgressBackgroundColor(@ColorInt int color) {
+            progressBackgroundColor = color;
+            return this;
+        }
+
+        @NonNull
+        public Builder setProgressStrokeWidthPx(@Dimension int strokeWidth) {
+            progressStrokeWidth = strokeWidth;
+            return this;
+        }
+
+        @NonNull
+        public Builder setProgressBackgroundStrokeWidthPx(@Dimension int strokeWidth) {
+            progressBackgroundStrokeWidth = strokeWidth;
+            return this;
+        }
+
+        @NonNull
+        public Builder setProgressStrokeCap(@CustomProgressBar.Cap int cap) {
+            progressStrokeCap = cap;
+            return this;
+        }
+
+        @NonNull
+        public Builder setDirection(@CustomProgressBar.Direction int direction) {
+            this.direction = direction;
+            return this;
+        }
+
+        /**
+         * Values outside 0..360 fall back to the default start angle, as in XML.
+         */
+        @NonNull
+        public Builder setStartAngle(@IntRange(from = 0, to = 360) int startAngle) {
+            this.startAngle = (startAngle < 0 || startAngle > 360) ? DEFAULT_PROGRESS_START_ANGLE : startAngle;
+            return this;
+        }
+
+        @NonNull
+        public Builder setShouldDrawDot(boolean shouldDrawDot) {
+            this.shouldDrawDot = shouldDrawDot;
+            return this;
+        }
+
+        @NonNull
+        public Builder setDotColor(@ColorInt int color) {
+            dotColor = color;
+            return this;
+        }
+
+        @NonNull
+        public Builder setDotWidthPx(@Dimension int width) {
+            dotWidth = width;
+            return this;
+        }
+
+        @NonNull
+        public Builder setFillBackgroundEnabled(boolean fillBackgroundEnabled) {
+            isFillBackgroundEnabled = fillBackgroundEnabled;
+            return this;
+        }
+
+        @NonNull
+        public Builder setBackgroundCacheEnabled(boolean backgroundCacheEnabled) {
+            isBackgroundCacheEnabled = backgroundCacheEnabled;
+            return this;
+        }
+
+        @NonNull
+        public Builder setAnimationEnabled(boolean animationEnabled) {
+            isAnimationEnabled = animationEnabled;
+            return this;
+        }
+
+        @NonNull
+        public Builder setIndeterminate(boolean indeterminate) {
+            isIndeterminate = indeterminate;
+            return this;
+        }
+
+        /**
+         * {@link CustomProgressBar#LABEL_CUSTOM} only takes effect once a formatter is set on
+         * the bar or drawable.
+         */
+        @NonNull
+        public Builder setLabelMode(@CustomProgressBar.LabelMode int labelMode) {
+            this.labelMode = labelMode;
+            return this;
+        }
+
+        @NonNull
+        public Builder setLabelColor(@ColorInt int color) {
+            labelColor = color;
+            return this;
+        }
+
+        /**
+         * @param textSize size in pixels, or 0 to scale the label with the ring
+         */
+        @NonNull
+        public Builder setLabelTextSizePx(@Dimension int textSize) {
+            labelTextSize = textSize;
+            return this;
+        }
+
+        @NonNull
+        public ProgressBarStyle build() {
+            return new ProgressBarStyle(this);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.circularpb;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import androidx.annotation.Dimension;
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Renders a progress ring into a bitmap without a view, for {@code RemoteViews} based UIs
+ * such as notifications and app widgets, which cannot host {@link CustomProgressBar}.
+ * <p>
+ * Drawing goes through the same {@link CircularProgressDrawable} the bar uses. Bitmaps handed
+ * back through {@link #release(Bitmap)} are reused by later renders of the same size, so a
+ * notification updated every second does not allocate a bitmap per update. All methods may be
+ * called from any thread; renders are serialised.
+ */
+public final class ProgressBitmapRenderer {
+
+    private static final int DEFAULT_POOL_SIZE = 2;
+
+    private final CircularProgressDrawable drawable;
+    private final Canvas canvas = new Canvas();
+    private final ArrayDeque<Bitmap> pool = new ArrayDeque<>();
+    private final int maxPoolSize;
+
+    public ProgressBitmapRenderer(@NonNull ProgressBarStyle style) {
+        this(style, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param maxPoolSize how many released bitmaps are kept for reuse
+     */
+    public ProgressBitmapRenderer(@NonNull ProgressBarStyle style, int maxPoolSize) {
+        drawable = new CircularProgressDrawable(style);
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    /**
+     * The drawable behind every render, e.g. to set a label or gradient. Configure it before
+     * the renderer is shared with a background thread. Renders never animate, whatever its
+     * animation settings.
+     */
+    @NonNull
+    public CircularProgressDrawable getDrawable() {
+        return drawable;
+    }
+
+    /**
+     * Draws the given progress into a pooled or new bitmap. Pass the bitmap to
+     * {@link #release(Bitmap)} once it has been handed over, e.g. after
+     * {@code NotificationManager.notify}, which copies it.
+     */
+    @WorkerThread
+    @NonNull
+    public synchronized Bitmap render(double progress, double maxProgress,
+                                      @Dimension int widthPx, @Dimension int heightPx) {
+        Bitmap bitmap = obtainBitmap(widthPx, heightPx);
+
+        canvas.setBitmap(bitmap);
+        drawable.setBounds(0, 0, widthPx, heightPx);
+        // a bitmap only ever shows the final frame
+        drawable.setProgressImmediately(progress, maxProgress);
+        drawable.draw(canvas);
+        canvas.setBitmap(null);
+        return bitmap;
+    }
+
+    /**
+     * Returns a bitmap from {@link #render} for reuse. It must not be used by the caller
+     * afterwards.
+     */
+    public synchronized void release(@NonNull Bitmap bitmap) {
+        if (bitmap.isRecycled() || pool.contains(bitmap)) return;
+
+        if (pool.size() >= maxPoolSize) {
+            pool.pollFirst().recycle();
+        }
+        pool.addLast(bitmap);
+    }
+
+    /**
+     * Recycles all pooled bitmaps.
+     */
+    public synchronized void clearPool() {
+        for (Bitmap bitmap : pool) {
+            bitmap.recycle();
+        }
+        pool.clear();
+        drawable.releaseBackgroundCache();
+    }
+
+    private Bitmap obtainBitmap(int width, int height) {
+        Iterator<Bitmap> iterator = pool.iterator();
+        while (iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                iterator.remove();
+                bitmap.eraseColor(Color.TRANSPARENT);
+                return bitmap;
+            }
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+}
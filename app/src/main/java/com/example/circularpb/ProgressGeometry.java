@@ -0,0 +1,152 @@
+package com.example.circularpb;
+
+/**
+ * Platform independent geometry of the circular progress track.
+ * Angles follow {@code Canvas.drawArc}: degrees, 0 at three o'clock, growing clockwise.
+ * <p>
+ * Sine and cosine come from a precomputed table with linear interpolation between entries,
+ * and the arc endpoint is cached until the circle or the angle changes.
+ */
+final class ProgressGeometry {
+
+    static final int LEFT = 0;
+    static final int TOP = 1;
+    static final int RIGHT = 2;
+    static final int BOTTOM = 3;
+
+    private static final int TABLE_STEPS_PER_DEGREE = 4;
+    private static final float[] SIN_TABLE = new float[360 * TABLE_STEPS_PER_DEGREE + 1];
+
+    static {
+        for (int i = 0; i < SIN_TABLE.length; i++) {
+            SIN_TABLE[i] = (float) Math.sin(Math.toRadians((double) i / TABLE_STEPS_PER_DEGREE));
+        }
+    }
+
+    private float centerX;
+    private float centerY;
+    private float radius;
+    private float endAngle;
+    private float endX;
+    private float endY;
+    private boolean isEndpointValid;
+
+    void setCircle(float centerX, float centerY, float radius) {
+        if (this.centerX == centerX && this.centerY == centerY && this.radius == radius) return;
+
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.radius = radius;
+        isEndpointValid = false;
+    }
+
+    void setEndAngle(float endAngle) {
+        if (this.endAngle == endAngle) return;
+
+        this.endAngle = endAngle;
+        isEndpointValid = false;
+    }
+
+    float getEndX() {
+        updateEndpoint();
+        return endX;
+    }
+
+    float getEndY() {
+        updateEndpoint();
+        return endY;
+    }
+
+    private void updateEndpoint() {
+        if (isEndpointValid) return;
+
+        endX = centerX + radius * cos(endAngle);
+        endY = centerY + radius * sin(endAngle);
+        isEndpointValid = true;
+    }
+
+    static float sin(float degrees) {
+        float normalized = degrees % 360f;
+        if (normalized < 0f) normalized += 360f;
+
+        float position = normalized * TABLE_STEPS_PER_DEGREE;
+        int index = (int) position;
+        if (index >= SIN_TABLE.length - 1) return SIN_TABLE[SIN_TABLE.length - 1];
+
+        float fraction = position - index;
+        return SIN_TABLE[index] + (SIN_TABLE[index + 1] - SIN_TABLE[index]) * fraction;
+    }
+
+    static float cos(float degrees) {
+        return sin(degrees + 90f);
+    }
+
+    /**
+     * Sweep angle of {@code value} out of {@code max}, negative when counterclockwise.
+     */
+    static float toSweepAngle(double value, double max, boolean counterclockwise) {
+        float angle = (float) (value / max * 360);
+        return counterclockwise ? -angle : angle;
+    }
+
+    /**
+     * Writes the bounds of the largest circle centred in the given box into {@code out}, inset by
+     * half of {@code strokeSizeOffset} so the stroke stays inside the box.
+     */
+    static void computeCircleBounds(float left, float top, float width, float height,
+                                    float strokeSizeOffset, float[] out) {
+        float size = Math.min(width, height);
+        float halfOffset = strokeSizeOffset / 2f;
+
+        out[LEFT] = left + (width - size) / 2f + halfOffset;
+        out[TOP] = top + (height - size) / 2f + halfOffset;
+        out[RIGHT] = out[LEFT] + size - strokeSizeOffset;
+        out[BOTTOM] = out[TOP] + size - strokeSizeOffset;
+    }
+
+    /**
+     * Writes the bounding box of the circle segment between {@code fromAngle} and
+     * {@code toAngle} (in either order) into {@code out} as left, top, right, bottom.
+     */
+    static void computeArcBounds(float centerX, float centerY, float radius,
+                                 float fromAngle, float toAngle, float[] out) {
+        float low = Math.min(fromAngle, toAngle);
+        float high = Math.max(fromAngle, toAngle);
+
+        if (high - low >= 360f) {
+            out[LEFT] = centerX - radius;
+            out[TOP] = centerY - radius;
+            out[RIGHT] = centerX + radius;
+            out[BOTTOM] = centerY + radius;
+            return;
+        }
+
+        float x0 = centerX + radius * cos(low);
+        float y0 = centerY + radius * sin(low);
+        float x1 = centerX + radius * cos(high);
+        float y1 = centerY + radius * sin(high);
+
+        out[LEFT] = Math.min(x0, x1);
+        out[TOP] = Math.min(y0, y1);
+        out[RIGHT] = Math.max(x0, x1);
+        out[BOTTOM] = Math.max(y0, y1);
+
+        // the segment reaches the circle's extreme in every axis direction it passes through
+        for (int quarter = (int) Math.ceil(low / 90f); quarter * 90f <= high; quarter++) {
+            switch (((quarter % 4) + 4) % 4) {
+                case 0:
+                    out[RIGHT] = centerX + radius;
+                    break;
+                case 1:
+                    out[BOTTOM] = centerY + radius;
+                    break;
+                case 2:
+                    out[LEFT] = centerX - radius;
+                    break;
+                default:
+                    out[TOP] = centerY - radius;
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.circularpb;
+
+import android.animation.TimeInterpolator;
+
+/**
+ * Frame driven interpolation of the progress sweep angle, either as a timed tween or as a
+ * spring which can be retargeted while moving.
+ * <p>
+ * A single instance is reused for every animation of a bar, so starting an animation or
+ * stepping a frame never allocates and no value is boxed.
+ */
+final class SweepAnimation {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long START_TIME_PENDING = -1L;
+    private static final float NANOS_PER_SECOND = 1_000_000_000f;
+    // sub-steps keep the explicit integration stable for stiff springs
+    private static final float SPRING_MAX_STEP_SECONDS = 1f / 240;
+    // a stalled main thread must not fling the spring
+    private static final float SPRING_MAX_FRAME_SECONDS = .1f;
+    private static final float SPRING_VALUE_THRESHOLD = .05f;
+    private static final float SPRING_VELOCITY_THRESHOLD = 1f;
+
+    private float startValue;
+    private float endValue;
+    private float value;
+    private long durationNanos;
+    private long startTimeNanos = START_TIME_PENDING;
+    private boolean running;
+
+    private boolean isSpring;
+    private float velocity; // degrees per second
+    private float stiffness;
+    private float dampingRatio;
+    private long lastFrameTimeNanos;
+
+    private TimeInterpolator interpolator;
+
+    /**
+     * Starts animating from {@code from} to {@code to}. The start time is latched on the first
+     * frame passed to {@link #step(long)}, so the first frame always reports {@code from}.
+     */
+    void start(float from, float to, long durationMillis, TimeInterpolator interpolator) {
+        this.startValue = from;
+        this.endValue = to;
+        this.value = from;
+        this.durationNanos = durationMillis * NANOS_PER_MILLI;
+        this.interpolator = interpolator;
+        this.startTimeNanos = START_TIME_PENDING;
+        this.running = true;
+        this.isSpring = false;
+        this.velocity = 0;
+    }
+
+    /**
+     * Springs towards {@code to}. While a spring is already running only its target and
+     * parameters change, so the current value and velocity carry over and rapid updates
+     * produce one continuous motion. Otherwise the spring starts at rest at {@code from}.
+     *
+     * @param stiffness    spring constant, as in {@code SpringForce}
+     * @param dampingRatio 1 for no overshoot, less to bounce
+     */
+    void springTo(float from, float to, float stiffness, float dampingRatio) {
+        if (!running || !isSpring) {
+            startValue = from;
+            value = from;
+            velocity = 0;
+            startTimeNanos = START_TIME_PENDING;
+        }
+        this.endValue = to;
+        this.stiffness = stiffness;
+        this.dampingRatio = dampingRatio;
+        this.isSpring = true;
+        this.running = true;
+    }
+
+    /**
+     * Advances the animation to the given frame time.
+     *
+     * @return true while the animation still needs frames
+     */
+    boolean step(long frameTimeNanos) {
+        if (!running) return false;
+
+        if (startTimeNanos == START_TIME_PENDING) {
+            startTimeNanos = frameTimeNanos;
+            lastFrameTimeNanos = frameTimeNanos;
+        }
+
+        if (isSpring) return stepSpring(frameTimeNanos);
+
+        long elapsed = frameTimeNanos - startTimeNanos;
+        if (durationNanos <= 0 || elapsed >= durationNanos) {
+            value = endValue;
+            running = false;
+            return false;
+        }
+
+        float fraction = (float) elapsed / durationNanos;
+        if (interpolator != null) {
+            fraction = interpolator.getInterpolation(fraction);
+        }
+        value = startValue + (endValue - startValue) * fraction;
+        return true;
+    }
+
+    private boolean stepSpring(long frameTimeNanos) {
+        float remaining = Math.min((frameTimeNanos - lastFrameTimeNanos) / NANOS_PER_SECOND, SPRING_MAX_FRAME_SECONDS);
+        lastFrameTimeNanos = frameTimeNanos;
+
+        float damping = 2 * dampingRatio * (float) Math.sqrt(stiffness);
+        while (remaining > 0) {
+            float step = Math.min(remaining, SPRING_MAX_STEP_SECONDS);
+            float acceleration = -stiffness * (value - endValue) - damping * velocity;
+            velocity += acceleration * step;
+            value += velocity * step;
+            remaining -= step;
+        }
+
+        if (Math.abs(value - endValue) < SPRING_VALUE_THRESHOLD && Math.abs(velocity) < SPRING_VELOCITY_THRESHOLD) {
+            value = endValue;
+            velocity = 0;
+            running = false;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stops the animation and jumps to its end value.
+     */
+    void cancel() {
+        value = endValue;
+        velocity = 0;
+        running = false;
+    }
+
+    /**
+     * Negates every angle so a running animation carries on in the opposite direction, with
+     * its timing and spring state unchanged.
+     */
+    void mirror() {
+        startValue = -startValue;
+        endValue = -endValue;
+        value = -value;
+        velocity = -velocity;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    boolean isSpring() {
+        return isSpring;
+    }
+
+    float getVelocity() {
+        return velocity;
+    }
+
+    float getValue() {
+        return value;
+    }
+
+    float getEndValue() {
+        return endValue;
+    }
+
+    /**
+     * @return the time left until the end value is reached, the full duration before the
+     * first frame and 0 once finished
+     */
+    long getRemainingNanos(long nowNanos) {
+        if (!running) return 0;
+        // a spring has no fixed end, estimate it from the decay rate of its envelope
+        if (isSpring) return (long) (4 / (dampingRatio * Math.sqrt(stiffness)) * NANOS_PER_SECOND);
+        if (startTimeNanos == START_TIME_PENDING) return durationNanos;
+        return Math.max(0, durationNanos - (nowNanos - startTimeNanos));
+    }
+}
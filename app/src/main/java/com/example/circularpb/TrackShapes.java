@@ -0,0 +1,118 @@
+package com.example.circularpb;
+
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.RectF;
+
+import androidx.annotation.FloatRange;
+import androidx.annotation.NonNull;
+
+/**
+ * Built-in {@link CircularProgressDrawable.TrackShape}s. The circle needs none, it is the
+ * default track when no shape is set.
+ */
+public final class TrackShapes {
+
+    private TrackShapes() {
+    }
+
+    /**
+     * A square with rounded corners, starting at the point of its outline matching the start
+     * angle.
+     *
+     * @param cornerRadiusFraction corner radius relative to half the side, 0 for sharp corners
+     *                             and 1 for a circle
+     */
+    @NonNull
+    public static CircularProgressDrawable.TrackShape roundedSquare(@FloatRange(from = 0, to = 1) float cornerRadiusFraction) {
+        return new RoundedSquare(cornerRadiusFraction);
+    }
+
+    /**
+     * An open arc of {@code sweepAngle} degrees with its gap centred at the bottom, like a
+     * speedometer. Progress always starts at the end of the gap; the start angle is ignored.
+     */
+    @NonNull
+    public static CircularProgressDrawable.TrackShape gauge(@FloatRange(from = 0, to = 360) float sweepAngle) {
+        return new Gauge(sweepAngle);
+    }
+
+    private static final class RoundedSquare implements CircularProgressDrawable.TrackShape {
+        private final float cornerRadiusFraction;
+
+        RoundedSquare(float cornerRadiusFraction) {
+            this.cornerRadiusFraction = Math.max(0f, Math.min(1f, cornerRadiusFraction));
+        }
+
+        @Override
+        public void buildTrack(@NonNull RectF bounds, int startAngle, boolean clockwise, @NonNull Path track) {
+            // built from the top centre, then rotated along the outline to the start angle
+            Path outline = new Path();
+            float radius = cornerRadiusFraction * bounds.width() / 2f;
+            float centerX = bounds.centerX();
+            RectF corner = new RectF();
+
+            outline.moveTo(centerX, bounds.top);
+            if (clockwise) {
+                outline.lineTo(bounds.right - radius, bounds.top);
+                corner.set(bounds.right - 2 * radius, bounds.top, bounds.right, bounds.top + 2 * radius);
+                outline.arcTo(corner, 270, 90);
+                outline.lineTo(bounds.right, bounds.bottom - radius);
+                corner.set(bounds.right - 2 * radius, bounds.bottom - 2 * radius, bounds.right, bounds.bottom);
+                outline.arcTo(corner, 0, 90);
+                outline.lineTo(bounds.left + radius, bounds.bottom);
+                corner.set(bounds.left, bounds.bottom - 2 * radius, bounds.left + 2 * radius, bounds.bottom);
+                outline.arcTo(corner, 90, 90);
+                outline.lineTo(bounds.left, bounds.top + radius);
+                corner.set(bounds.left, bounds.top, bounds.left + 2 * radius, bounds.top + 2 * radius);
+                outline.arcTo(corner, 180, 90);
+            } else {
+                outline.lineTo(bounds.left + radius, bounds.top);
+                corner.set(bounds.left, bounds.top, bounds.left + 2 * radius, bounds.top + 2 * radius);
+                outline.arcTo(corner, 270, -90);
+                outline.lineTo(bounds.left, bounds.bottom - radius);
+                corner.set(bounds.left, bounds.bottom - 2 * radius, bounds.left + 2 * radius, bounds.bottom);
+                outline.arcTo(corner, 180, -90);
+                outline.lineTo(bounds.right - radius, bounds.bottom);
+                corner.set(bounds.right - 2 * radius, bounds.bottom - 2 * radius, bounds.right, bounds.bottom);
+                outline.arcTo(corner, 90, -90);
+                outline.lineTo(bounds.right, bounds.top + radius);
+                corner.set(bounds.right - 2 * radius, bounds.top, bounds.right, bounds.top + 2 * radius);
+                outline.arcTo(corner, 0, -90);
+            }
+            outline.lineTo(centerX, bounds.top);
+
+            int angleFromTop = clockwise ? startAngle - 270 : 270 - startAngle;
+            angleFromTop = ((angleFromTop % 360) + 360) % 360;
+            if (angleFromTop == 0) {
+                track.addPath(outline);
+            } else {
+                PathMeasure measure = new PathMeasure(outline, false);
+                float length = measure.getLength();
+                float startDistance = length * angleFromTop / 360f;
+                measure.getSegment(startDistance, length, track, true);
+                measure.getSegment(0, startDistance, track, false);
+            }
+            // the end meets the start, closing marks the outline as one loop
+            track.close();
+        }
+    }
+
+    private static final class Gauge implements CircularProgressDrawable.TrackShape {
+        private final float sweepAngle;
+
+        Gauge(float sweepAngle) {
+            this.sweepAngle = Math.max(0f, Math.min(360f, sweepAngle));
+        }
+
+        @Override
+        public void buildTrack(@NonNull RectF bounds, int startAngle, boolean clockwise, @NonNull Path track) {
+            float gap = 360f - sweepAngle;
+            if (clockwise) {
+                track.arcTo(bounds, 90 + gap / 2f, sweepAngle, true);
+            } else {
+                track.arcTo(bounds, 90 - gap / 2f, -sweepAngle, true);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.circularpb;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Software canvas that counts the draw calls made by the progress drawable.
+ */
+class CountingCanvas extends Canvas {
+
+    int arcs;
+    int points;
+    int bitmaps;
+    int texts;
+    int paths;
+    int lines;
+    // single line segments over all drawLines calls
+    int lineSegments;
+
+    CountingCanvas(@NonNull Bitmap bitmap) {
+        super(bitmap);
+    }
+
+    void reset() {
+        arcs = 0;
+        points = 0;
+        bitmaps = 0;
+        texts = 0;
+        paths = 0;
+        lines = 0;
+        lineSegments = 0;
+    }
+
+    int total() {
+        return arcs + points + bitmaps + texts + paths + lines;
+    }
+
+    // the RectF overload forwards to the float one, so only one of them may count
+
+    @Override
+    public void drawArc(@NonNull RectF oval, float startAngle, float sweepAngle, boolean useCenter, @NonNull Paint paint) {
+        arcs++;
+        super.drawArc(oval, startAngle, sweepAngle, useCenter, paint);
+    }
+
+    @Override
+    public void drawPoint(float x, float y, @NonNull Paint paint) {
+        points++;
+        super.drawPoint(x, y, paint);
+    }
+
+    @Override
+    public void drawBitmap(@NonNull Bitmap bitmap, float left, float top, Paint paint) {
+        bitmaps++;
+        super.drawBitmap(bitmap, left, top, paint);
+    }
+
+    @Override
+    public void drawText(@NonNull String text, float x, float y, @NonNull Paint paint) {
+        texts++;
+        super.drawText(text, x, y, paint);
+    }
+
+    @Override
+    public void drawText(@NonNull char[] text, int index, int count, float x, float y, @NonNull Paint paint) {
+        texts++;
+        super.drawText(text, index, count, x, y, paint);
+    }
+
+    @Override
+    public void drawText(@NonNull CharSequence text, int start, int end, float x, float y, @NonNull Paint paint) {
+        texts++;
+        super.drawText(text, start, end, x, y, paint);
+    }
+
+    @Override
+    public void drawPath(@NonNull Path path, @NonNull Paint paint) {
+        paths++;
+        super.drawPath(path, paint);
+    }
+
+    @Override
+    public void drawLines(@NonNull float[] pts, int offset, int count, @NonNull Paint paint) {
+        lines++;
+        lineSegments += count / 4;
+        super.drawLines(pts, offset, count, paint);
+    }
+}
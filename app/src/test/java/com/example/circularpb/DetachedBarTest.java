@@ -0,0 +1,105 @@
+package com.example.circularpb;
+
+import android.app.Activity;
+import android.graphics.Color;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Checks that a bar removed from its window is treated as hidden, so nothing of it stays on
+ * the shared {@link ProgressAnimationClock}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class DetachedBarTest {
+
+    @Rule
+    public final FrameClockRule clock = new FrameClockRule();
+
+    private FrameLayout container;
+    private CustomProgressBar bar;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        container = new FrameLayout(activity);
+        activity.setContentView(container);
+        bar = new CustomProgressBar(activity, new ProgressBarStyle.Builder(activity.getResources())
+                .setAnimationEnabled(true)
+                .build());
+        bar.setMetricsEnabled(true);
+        container.addView(bar);
+    }
+
+    @Test
+    public void detach_finishesProgressAndSegmentAnimations() {
+        bar.setSegments(new double[]{10, 20}, new int[]{Color.RED, Color.BLUE});
+        bar.setSegmentValue(0, 40);
+        bar.setProgress(60, 100);
+        clock.doFrame();
+        assertTrue(bar.getProgressDrawable().isProgressAnimationRunning());
+
+        container.removeView(bar);
+
+        assertFalse(bar.getProgressDrawable().isProgressAnimationRunning());
+        // the rest of both animations is counted as skipped, and both as cancelled
+        assertTrue(bar.getMetrics().getSkippedAnimationFrames() > 0);
+        assertEquals(2, bar.getMetrics().getAnimationsStarted());
+        assertEquals(2, bar.getMetrics().getAnimationsCancelled());
+        assertNoFramesDrawn();
+    }
+
+    @Test
+    public void setProgressWhileDetached_jumpsWithoutAnimating() {
+        container.removeView(bar);
+
+        bar.setProgress(80, 100);
+
+        assertFalse(bar.getProgressDrawable().isProgressAnimationRunning());
+        assertTrue(bar.getMetrics().getSkippedAnimationFrames() > 0);
+        assertNoFramesDrawn();
+    }
+
+    @Test
+    public void detachedTimer_onlyWaitsForItsCompletion() {
+        final int[] completions = new int[1];
+        bar.setOnTimerCompleteListener(new CircularProgressDrawable.OnTimerCompleteListener() {
+            @Override
+            public void onTimerComplete(CircularProgressDrawable drawable) {
+                completions[0]++;
+            }
+        });
+        bar.startTimer(CustomProgressBar.TIMER_COUNTDOWN, SystemClock.uptimeMillis(), 1_000);
+        clock.doFrame();
+
+        container.removeView(bar);
+
+        assertTrue(bar.isTimerRunning());
+        assertNoFramesDrawn();
+
+        shadowOf(Looper.getMainLooper()).idleFor(2, TimeUnit.SECONDS);
+        assertFalse(bar.isTimerRunning());
+        assertEquals(1, completions[0]);
+        assertEquals(0.0, bar.getProgress(), 0);
+    }
+
+    private void assertNoFramesDrawn() {
+        long invalidations = bar.getMetrics().getInvalidationCount();
+        clock.doFrames(10);
+        assertEquals(invalidations, bar.getMetrics().getInvalidationCount());
+    }
+}
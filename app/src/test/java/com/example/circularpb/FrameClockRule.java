@@ -0,0 +1,48 @@
+package com.example.circularpb;
+
+import org.junit.rules.ExternalResource;
+
+/**
+ * Drives the shared {@link ProgressAnimationClock} by hand with fixed frame times, and leaves
+ * it empty and self-driven again after each test.
+ */
+class FrameClockRule extends ExternalResource {
+
+    static final long START_FRAME_NANOS = 1_000_000_000L;
+    static final long FRAME_NANOS = 16_666_667L;
+
+    private final ProgressAnimationClock clock = ProgressAnimationClock.getInstance();
+    private long frameTimeNanos = START_FRAME_NANOS;
+
+    @Override
+    protected void before() {
+        clock.setManuallyDriven(true);
+    }
+
+    @Override
+    protected void after() {
+        clock.removeAllClients();
+        clock.setManuallyDriven(false);
+    }
+
+    /**
+     * Sets the time of the next frame.
+     */
+    void setFrameTimeNanos(long frameTimeNanos) {
+        this.frameTimeNanos = frameTimeNanos;
+    }
+
+    /**
+     * Dispatches one frame and moves the frame time one frame ahead.
+     */
+    void doFrame() {
+        clock.doFrame(frameTimeNanos);
+        frameTimeNanos += FRAME_NANOS;
+    }
+
+    void doFrames(int frames) {
+        for (int frame = 0; frame < frames; frame++) {
+            doFrame();
+        }
+    }
+}
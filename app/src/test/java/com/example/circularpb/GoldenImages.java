@@ -0,0 +1,95 @@
+package com.example.circularpb;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares rendered frames with the PNGs in {@code src/test/resources/golden}.
+ * <p>
+ * Run the tests with {@code -Dgolden.record=true} to write the current frames as the new
+ * goldens. A frame without a golden fails like a mismatching one; a new scenario is recorded
+ * once and its PNGs committed with it.
+ */
+final class GoldenImages {
+
+    private static final String GOLDEN_DIR = "src/test/resources/golden";
+    private static final String FAILURE_DIR = "build/outputs/golden-failures";
+    // anti-aliased edges may differ slightly between native graphics builds
+    private static final int CHANNEL_TOLERANCE = 2;
+    private static final int MAX_DIFFERING_PIXELS = 8;
+
+    private GoldenImages() {
+    }
+
+    static void assertMatches(@NonNull String name, @NonNull Bitmap actual) throws IOException {
+        if (Boolean.getBoolean("golden.record")) {
+            write(actual, new File(GOLDEN_DIR, name + ".png"));
+            return;
+        }
+
+        InputStream in = GoldenImages.class.getClassLoader().getResourceAsStream("golden/" + name + ".png");
+        if (in == null) {
+            File failure = new File(FAILURE_DIR, name + ".png");
+            write(actual, failure);
+            fail("no golden image for " + name + ", record it with -Dgolden.record=true; actual frame written to " + failure);
+        }
+        Bitmap expected;
+        try {
+            expected = BitmapFactory.decodeStream(in);
+        } finally {
+            in.close();
+        }
+
+        assertEquals(name + " width", expected.getWidth(), actual.getWidth());
+        assertEquals(name + " height", expected.getHeight(), actual.getHeight());
+
+        int differingPixels = countDifferingPixels(expected, actual);
+        if (differingPixels > MAX_DIFFERING_PIXELS) {
+            File failure = new File(FAILURE_DIR, name + ".png");
+            write(actual, failure);
+            fail(name + ": " + differingPixels + " pixels differ from the golden, actual frame written to " + failure);
+        }
+    }
+
+    private static int countDifferingPixels(Bitmap expected, Bitmap actual) {
+        int width = expected.getWidth();
+        int height = expected.getHeight();
+        int[] expectedPixels = new int[width * height];
+        int[] actualPixels = new int[width * height];
+        expected.getPixels(expectedPixels, 0, width, 0, 0, width, height);
+        actual.getPixels(actualPixels, 0, width, 0, 0, width, height);
+
+        int count = 0;
+        for (int i = 0; i < expectedPixels.length; i++) {
+            int a = expectedPixels[i];
+            int b = actualPixels[i];
+            if (Math.abs(Color.alpha(a) - Color.alpha(b)) > CHANNEL_TOLERANCE
+                    || Math.abs(Color.red(a) - Color.red(b)) > CHANNEL_TOLERANCE
+                    || Math.abs(Color.green(a) - Color.green(b)) > CHANNEL_TOLERANCE
+                    || Math.abs(Color.blue(a) - Color.blue(b)) > CHANNEL_TOLERANCE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void write(Bitmap bitmap, File file) throws IOException {
+        file.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } finally {
+            out.close();
+        }
+    }
+}
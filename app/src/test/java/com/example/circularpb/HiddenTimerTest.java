@@ -0,0 +1,53 @@
+package com.example.circularpb;
+
+import android.os.Looper;
+import android.os.SystemClock;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * A hidden drawable gets no frames, its timer must still complete on time without a
+ * {@link android.graphics.drawable.Drawable.Callback} to schedule through.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class HiddenTimerTest {
+
+    @Rule
+    public final FrameClockRule clock = new FrameClockRule();
+
+    @Test
+    public void hiddenDrawableWithoutCallback_completesItsTimer() {
+        CircularProgressDrawable drawable = new CircularProgressDrawable(RuntimeEnvironment.getApplication().getResources());
+        drawable.setBounds(0, 0, 200, 200);
+        drawable.setVisible(false, false);
+        final int[] completions = new int[1];
+        drawable.setOnTimerCompleteListener(new CircularProgressDrawable.OnTimerCompleteListener() {
+            @Override
+            public void onTimerComplete(CircularProgressDrawable drawable) {
+                completions[0]++;
+            }
+        });
+
+        drawable.startTimer(CustomProgressBar.TIMER_ELAPSED, SystemClock.uptimeMillis(), 1_000);
+        assertNull(drawable.getCallback());
+
+        shadowOf(Looper.getMainLooper()).idleFor(999, TimeUnit.MILLISECONDS);
+        assertTrue(drawable.isTimerRunning());
+
+        shadowOf(Looper.getMainLooper()).idleFor(1, TimeUnit.MILLISECONDS);
+        assertFalse(drawable.isTimerRunning());
+        assertEquals(1, completions[0]);
+        assertEquals(100.0, drawable.getProgress(), 0);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.circularpb;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LabelTextTest {
+
+    @Test
+    public void percent_isCachedAndClamped() {
+        assertEquals("0%", LabelText.percent(0));
+        assertEquals("42%", LabelText.percent(42));
+        assertSame(LabelText.percent(42), LabelText.percent(42));
+        assertEquals("100%", LabelText.percent(250));
+        assertEquals("0%", LabelText.percent(-5));
+    }
+
+    @Test
+    public void formatValue_writesValueAndMax() {
+        char[] buffer = new char[LabelText.VALUE_BUFFER_SIZE];
+
+        int count = LabelText.formatValue(37, 120, buffer);
+        assertEquals("37/120", new String(buffer, 0, count));
+
+        count = LabelText.formatValue(0, 5, buffer);
+        assertEquals("0/5", new String(buffer, 0, count));
+
+        count = LabelText.formatValue(Long.MIN_VALUE, Long.MAX_VALUE, buffer);
+        assertEquals(Long.MIN_VALUE + "/" + Long.MAX_VALUE, new String(buffer, 0, count));
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.circularpb;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.SystemClock;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Renders scripted progress sequences headlessly and checks every frame's draw calls and
+ * selected frames against golden images.
+ * <p>
+ * Animations are stepped through {@link ProgressAnimationClock#doFrame(long)} with fixed frame
+ * times, so each run produces the same frames. Per-frame draw call counts are also written to
+ * {@code build/reports/rendering} for comparing runs.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ProgressBarRenderingTest {
+
+    private static final String REPORT_DIR = "build/reports/rendering";
+    private static final int SIZE_PX = 200;
+    // the first frame latches the start time, the 60th reaches the end of a 1s animation
+    private static final int ANIMATION_FRAMES = 61;
+    private static final int GOLDEN_FRAME_INTERVAL = 15;
+
+    @Rule
+    public final FrameClockRule clock = new FrameClockRule();
+
+    private Bitmap bitmap;
+    private CountingCanvas canvas;
+    private StringBuilder report;
+
+    @Before
+    public void setUp() {
+        bitmap = Bitmap.createBitmap(SIZE_PX, SIZE_PX, Bitmap.Config.ARGB_8888);
+        canvas = new CountingCanvas(bitmap);
+        report = new StringBuilder("frame,arcs,points,bitmaps,texts,paths,lines,total\n");
+    }
+
+    @Test
+    public void animatedProgress() throws IOException {
+        CustomProgressBar bar = createBar(new ProgressBarStyle.Builder(getContext().getResources())
+                .setAnimationEnabled(true)
+                .build());
+        bar.setProgress(75, 100);
+
+        List<Bitmap> goldenFrames = new ArrayList<>();
+        for (int frame = 0; frame < ANIMATION_FRAMES; frame++) {
+            clock.doFrame();
+            render(bar, frame);
+
+            // background ring, progress arc and dot, nothing else
+            assertEquals("arcs in frame " + frame, 2, canvas.arcs);
+            assertEquals("points in frame " + frame, 1, canvas.points);
+            assertEquals("draw calls in frame " + frame, 3, canvas.total());
+            if (frame % GOLDEN_FRAME_INTERVAL == 0) goldenFrames.add(bitmap.copy(bitmap.getConfig(), false));
+        }
+        assertFalse(bar.getProgressDrawable().isProgressAnimationRunning());
+        writeReport("animatedProgress");
+
+        for (int i = 0; i < goldenFrames.size(); i++) {
+            GoldenImages.assertMatches("animated_progress_frame_" + (i * GOLDEN_FRAME_INTERVAL), goldenFrames.get(i));
+        }
+    }
+
+    @Test
+    public void countdownTimer() throws IOException {
+        CustomProgressBar bar = createBar(ProgressBarStyle.getDefault(getContext().getResources()));
+        final int[] completions = new int[1];
+        bar.setOnTimerCompleteListener(new CircularProgressDrawable.OnTimerCompleteListener() {
+            @Override
+            public void onTimerComplete(CircularProgressDrawable drawable) {
+                completions[0]++;
+            }
+        });
+
+        // Robolectric's System.nanoTime follows its paused SystemClock
+        long startMillis = SystemClock.uptimeMillis();
+        bar.startTimer(CustomProgressBar.TIMER_COUNTDOWN, startMillis, 1_000);
+        assertEquals(100.0, bar.getProgress(), 1e-9);
+
+        clock.setFrameTimeNanos(startMillis * 1_000_000L + FrameClockRule.FRAME_NANOS);
+        List<Bitmap> goldenFrames = new ArrayList<>();
+        for (int frame = 1; frame < ANIMATION_FRAMES; frame++) {
+            clock.doFrame();
+            render(bar, frame);
+            assertEquals("draw calls in frame " + frame, 3, canvas.total());
+            if (frame == ANIMATION_FRAMES / 2) goldenFrames.add(bitmap.copy(bitmap.getConfig(), false));
+        }
+
+        assertFalse(bar.isTimerRunning());
+        assertEquals(1, completions[0]);
+        assertEquals(0.0, bar.getProgress(), 0);
+        writeReport("countdownTimer");
+
+        GoldenImages.assertMatches("countdown_half", goldenFrames.get(0));
+    }
+
+    @Test
+    public void cachedBackgroundWithLabel() throws IOException {
+        CustomProgressBar bar = createBar(new ProgressBarStyle.Builder(getContext().getResources())
+                .setDirection(CustomProgressBar.DIRECTION_CLOCKWISE)
+                .setProgressStrokeCap(CustomProgressBar.CAP_STRAIGHT)
+                .setBackgroundCacheEnabled(true)
+                .setLabelMode(CustomProgressBar.LABEL_PERCENT)
+                .build());
+        bar.setProgress(40, 100);
+
+        render(bar, 0);
+        render(bar, 1);
+
+        // the cached ring is one bitmap, the label one text run
+        assertEquals(1, canvas.bitmaps);
+        assertEquals(1, canvas.arcs);
+        assertEquals(1, canvas.points);
+        assertEquals(1, canvas.texts);
+        writeReport("cachedBackgroundWithLabel");
+
+        GoldenImages.assertMatches("cached_background_label_40", bitmap);
+    }
+
+    @Test
+    public void segments() throws IOException {
+        CustomProgressBar bar = createBar(ProgressBarStyle.getDefault(getContext().getResources()));
+        bar.setSegments(new double[]{30, 20, 10}, new int[]{Color.RED, Color.BLUE, Color.GREEN});
+
+        render(bar, 0);
+
+        // one arc per segment over the background, and no dot
+        assertEquals(4, canvas.arcs);
+        assertEquals(0, canvas.points);
+        writeReport("segments");
+
+        GoldenImages.assertMatches("segments_30_20_10", bitmap);
+    }
+
+    @Test
+    public void shapedTracks() throws IOException {
+        CustomProgressBar bar = createBar(ProgressBarStyle.getDefault(getContext().getResources()));
+        bar.setProgress(60, 100);
+
+        bar.setTrackShape(TrackShapes.roundedSquare(.4f));
+        render(bar, 0);
+        // track and progress are paths, the dot sits on the progress end
+        assertEquals(0, canvas.arcs);
+        assertEquals(2, canvas.paths);
+        assertEquals(1, canvas.points);
+        Bitmap roundedSquare = bitmap.copy(bitmap.getConfig(), false);
+
+        bar.setTrackShape(TrackShapes.gauge(270));
+        render(bar, 1);
+        assertEquals(2, canvas.paths);
+        writeReport("shapedTracks");
+
+        GoldenImages.assertMatches("rounded_square_60", roundedSquare);
+        GoldenImages.assertMatches("gauge_270_60", bitmap);
+    }
+
+    @Test
+    public void milestonesCrossedWhileAnimating() throws IOException {
+        CustomProgressBar bar = createBar(new ProgressBarStyle.Builder(getContext().getResources())
+                .setAnimationEnabled(true)
+                .build());
+        bar.setMilestones(new double[]{25, 50, 90}, new int[]{Color.YELLOW, Color.RED, Color.GREEN});
+        final StringBuilder crossings = new StringBuilder();
+        bar.addOnMilestoneListener(new CircularProgressDrawable.OnMilestoneListener() {
+            @Override
+            public void onMilestoneCrossed(int index, double threshold, boolean isUpwards) {
+                crossings.append(isUpwards ? '+' : '-').append(index).append(' ');
+            }
+        });
+
+        bar.setProgress(75, 100);
+        for (int frame = 0; frame < ANIMATION_FRAMES; frame++) {
+            clock.doFrame();
+            render(bar, frame);
+        }
+        assertEquals("+0 +1 ", crossings.toString());
+
+        // animating back down crosses both again, highest first
+        bar.setProgress(10, 100);
+        for (int frame = 0; frame < ANIMATION_FRAMES; frame++) {
+            clock.doFrame();
+            render(bar, ANIMATION_FRAMES + frame);
+        }
+        assertEquals("+0 +1 -1 -0 ", crossings.toString());
+        writeReport("milestones");
+    }
+
+    @Test
+    public void highlightedTicks() throws IOException {
+        CustomProgressBar bar = createBar(ProgressBarStyle.getDefault(getContext().getResources()));
+        bar.setTickMarks(12, 4);
+        bar.setTickHighlightColor(Color.BLACK);
+        bar.setProgress(35, 100);
+
+        render(bar, 0);
+        // reached and remaining ticks are two ranges of one buffer
+        assertEquals(2, canvas.lines);
+
+        bar.setTickHighlightColor(bar.getTickColor());
+        render(bar, 1);
+        assertEquals(1, canvas.lines);
+        writeReport("highlightedTicks");
+
+        GoldenImages.assertMatches("ticks_12x5_35", bitmap);
+    }
+
+    @Test
+    public void ticksOnShapedTracks() throws IOException {
+        CustomProgressBar bar = createBar(ProgressBarStyle.getDefault(getContext().getResources()));
+        bar.setTickMarks(12, 4);
+        bar.setTickHighlightColor(Color.BLACK);
+        bar.setProgress(35, 100);
+
+        // a closed outline ends where it starts, so it has no extra tick on top of tick 0
+        bar.setTrackShape(TrackShapes.roundedSquare(.4f));
+        render(bar, 0);
+        assertEquals(2, canvas.lines);
+        assertEquals(60, canvas.lineSegments);
+
+        // an open gauge gets a tick at both ends
+        bar.setTrackShape(TrackShapes.gauge(270));
+        render(bar, 1);
+        assertEquals(2, canvas.lines);
+        assertEquals(61, canvas.lineSegments);
+        writeReport("ticksOnShapedTracks");
+    }
+
+    @Test
+    public void resizedBar_keepsRingInsideBounds() throws IOException {
+        CustomProgressBar bar = createBar(ProgressBarStyle.getDefault(getContext().getResources()));
+        bar.setProgressStrokeWidthPx(24);
+        bar.setProgress(100, 100);
+        layout(bar, SIZE_PX / 2);
+
+        render(bar, 0);
+
+        // the corner lies outside the circle and the right half outside the smaller view
+        assertEquals(Color.TRANSPARENT, bitmap.getPixel(0, 0));
+        assertEquals(Color.TRANSPARENT, bitmap.getPixel(SIZE_PX / 2 + 1, SIZE_PX / 4));
+        assertNotEquals(Color.TRANSPARENT, bitmap.getPixel(SIZE_PX / 4, 12));
+        writeReport("resizedBar");
+
+        GoldenImages.assertMatches("resized_full_progress", bitmap);
+    }
+
+    private Context getContext() {
+        return RuntimeEnvironment.getApplication();
+    }
+
+    private CustomProgressBar createBar(ProgressBarStyle style) {
+        CustomProgressBar bar = new CustomProgressBar(getContext(), style);
+        layout(bar, SIZE_PX);
+        return bar;
+    }
+
+    private static void layout(View view, int size) {
+        int spec = View.MeasureSpec.makeMeasureSpec(size, View.MeasureSpec.EXACTLY);
+        view.measure(spec, spec);
+        view.layout(0, 0, size, size);
+    }
+
+    private void render(View view, int frame) {
+        bitmap.eraseColor(Color.TRANSPARENT);
+        canvas.reset();
+        view.draw(canvas);
+        report.append(frame).append(',')
+                .append(canvas.arcs).append(',')
+                .append(canvas.points).append(',')
+                .append(canvas.bitmaps).append(',')
+                .append(canvas.texts).append(',')
+                .append(canvas.paths).append(',')
+                .append(canvas.lines).append(',')
+                .append(canvas.total()).append('\n');
+    }
+
+    private void writeReport(String scenario) throws IOException {
+        File file = new File(REPORT_DIR, scenario + ".csv");
+        file.getParentFile().mkdirs();
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(report.toString());
+        } finally {
+            writer.close();
+        }
+    }
+}
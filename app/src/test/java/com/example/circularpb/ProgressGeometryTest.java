@@ -0,0 +1,88 @@
+package com.example.circularpb;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ProgressGeometryTest {
+
+    private static final float EPSILON = 0.001f;
+    private static final float TRIG_EPSILON = 0.00001f;
+
+    private final float[] bounds = new float[4];
+
+    @Test
+    public void toSweepAngle_isSignedByDirection() {
+        assertEquals(90f, ProgressGeometry.toSweepAngle(25, 100, false), EPSILON);
+        assertEquals(-270f, ProgressGeometry.toSweepAngle(3, 4, true), EPSILON);
+    }
+
+    @Test
+    public void arcBounds_smallSegmentCoversOnlyItsEndpoints() {
+        ProgressGeometry.computeArcBounds(100f, 100f, 50f, 10f, 20f, bounds);
+
+        float width = bounds[ProgressGeometry.RIGHT] - bounds[ProgressGeometry.LEFT];
+        float height = bounds[ProgressGeometry.BOTTOM] - bounds[ProgressGeometry.TOP];
+        assertTrue(width < 5f);
+        assertTrue(height < 10f);
+        assertEquals(100f + 50f * (float) Math.cos(Math.toRadians(10)), bounds[ProgressGeometry.RIGHT], EPSILON);
+    }
+
+    @Test
+    public void arcBounds_includesAxisExtremesCrossed() {
+        // 270 is twelve o'clock, -10..10 around it crosses the top of the circle
+        ProgressGeometry.computeArcBounds(100f, 100f, 50f, 260f, 280f, bounds);
+
+        assertEquals(50f, bounds[ProgressGeometry.TOP], EPSILON);
+    }
+
+    @Test
+    public void arcBounds_handlesCounterclockwiseAndNegativeAngles() {
+        ProgressGeometry.computeArcBounds(100f, 100f, 50f, 270f, 270f - 200f, bounds);
+
+        assertEquals(50f, bounds[ProgressGeometry.LEFT], EPSILON);
+        assertEquals(50f, bounds[ProgressGeometry.TOP], EPSILON);
+        assertEquals(150f, bounds[ProgressGeometry.BOTTOM], EPSILON);
+        assertTrue(bounds[ProgressGeometry.RIGHT] < 150f);
+
+        ProgressGeometry.computeArcBounds(100f, 100f, 50f, -100f, -80f, bounds);
+        assertEquals(50f, bounds[ProgressGeometry.TOP], EPSILON);
+    }
+
+    @Test
+    public void arcBounds_fullCircle() {
+        ProgressGeometry.computeArcBounds(100f, 100f, 50f, 0f, 720f, bounds);
+
+        assertEquals(50f, bounds[ProgressGeometry.LEFT], EPSILON);
+        assertEquals(50f, bounds[ProgressGeometry.TOP], EPSILON);
+        assertEquals(150f, bounds[ProgressGeometry.RIGHT], EPSILON);
+        assertEquals(150f, bounds[ProgressGeometry.BOTTOM], EPSILON);
+    }
+
+    @Test
+    public void sinAndCos_matchMathForSubDegreeAngles() {
+        for (float degrees = -720f; degrees <= 720f; degrees += 0.37f) {
+            double radians = Math.toRadians(degrees);
+            assertEquals("sin " + degrees, Math.sin(radians), ProgressGeometry.sin(degrees), TRIG_EPSILON);
+            assertEquals("cos " + degrees, Math.cos(radians), ProgressGeometry.cos(degrees), TRIG_EPSILON);
+        }
+    }
+
+    @Test
+    public void endpoint_followsCircleAndAngle() {
+        ProgressGeometry geometry = new ProgressGeometry();
+        geometry.setCircle(100f, 100f, 50f);
+
+        geometry.setEndAngle(270f);
+        assertEquals(100f, geometry.getEndX(), EPSILON);
+        assertEquals(50f, geometry.getEndY(), EPSILON);
+
+        geometry.setEndAngle(270f + 45.5f);
+        double radians = Math.toRadians(315.5);
+        assertEquals(100 + 50 * Math.cos(radians), geometry.getEndX(), EPSILON);
+        assertEquals(100 + 50 * Math.sin(radians), geometry.getEndY(), EPSILON);
+
+        geometry.setCircle(0f, 0f, 10f);
+        assertEquals(10 * Math.cos(radians), geometry.getEndX(), EPSILON);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.circularpb;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * An underdamped spring swings the ring past a full turn and past its start; the progress
+ * reported from it must stay within 0..max.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SpringOvershootTest {
+
+    private static final int MAX_FRAMES = 600;
+
+    @Rule
+    public final FrameClockRule clock = new FrameClockRule();
+
+    private CircularProgressDrawable drawable;
+    private double minReported;
+    private double maxReported;
+
+    @Before
+    public void setUp() {
+        drawable = new CircularProgressDrawable(new ProgressBarStyle.Builder(RuntimeEnvironment.getApplication().getResources())
+                .setAnimationEnabled(true)
+                .build());
+        drawable.setBounds(0, 0, 200, 200);
+        drawable.setAnimationMode(CustomProgressBar.ANIMATION_SPRING);
+        drawable.setSpring(200f, .3f);
+        drawable.addOnAnimatedProgressListener(new CircularProgressDrawable.OnAnimatedProgressListener() {
+            @Override
+            public void onAnimatedProgress(double progress, double maxProgress) {
+                minReported = Math.min(minReported, progress);
+                maxReported = Math.max(maxReported, progress);
+            }
+        });
+    }
+
+    @Test
+    public void reportedProgress_staysWithinRange_inBothDirections() {
+        for (int direction : new int[]{CustomProgressBar.DIRECTION_CLOCKWISE, CustomProgressBar.DIRECTION_COUNTERCLOCKWISE}) {
+            drawable.setDirection(direction);
+            minReported = Double.MAX_VALUE;
+            maxReported = -Double.MAX_VALUE;
+
+            settle(100);
+            assertEquals(100.0, maxReported, 1e-9);
+            settle(0);
+            assertEquals(0.0, minReported, 1e-9);
+        }
+    }
+
+    private void settle(double progress) {
+        drawable.setProgress(progress, 100);
+        for (int frame = 0; frame < MAX_FRAMES && drawable.isProgressAnimationRunning(); frame++) {
+            clock.doFrame();
+        }
+        assertFalse(drawable.isProgressAnimationRunning());
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.circularpb;
+
+import android.animation.TimeInterpolator;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+public class SweepAnimationTest {
+
+    private static final long FRAME_NANOS = 16_666_667L;
+    private static final int FRAME_COUNT = 10_000;
+    private static final float SPRING_STIFFNESS = 200f;
+
+    private static final TimeInterpolator LINEAR = new TimeInterpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return input;
+        }
+    };
+
+    @Test
+    public void firstFrame_reportsStartValue() {
+        SweepAnimation animation = new SweepAnimation();
+        animation.start(10f, 110f, 1_000, LINEAR);
+
+        assertTrue(animation.step(5_000_000_000L));
+        assertEquals(10f, animation.getValue(), 0f);
+    }
+
+    @Test
+    public void step_interpolatesAndFinishesAtEndValue() {
+        SweepAnimation animation = new SweepAnimation();
+        animation.start(0f, 100f, 1_000, LINEAR);
+
+        animation.step(0);
+        assertTrue(animation.step(500_000_000L));
+        assertEquals(50f, animation.getValue(), 0.001f);
+
+        assertFalse(animation.step(1_000_000_000L));
+        assertEquals(100f, animation.getValue(), 0f);
+        assertFalse(animation.isRunning());
+    }
+
+    @Test
+    public void cancel_jumpsToEndValue() {
+        SweepAnimation animation = new SweepAnimation();
+        animation.start(0f, -270f, 1_000, LINEAR);
+        animation.step(0);
+        animation.step(FRAME_NANOS);
+
+        animation.cancel();
+
+        assertFalse(animation.isRunning());
+        assertEquals(-270f, animation.getValue(), 0f);
+    }
+
+    @Test
+    public void mirror_continuesInTheOppositeDirection() {
+        SweepAnimation animation = new SweepAnimation();
+        animation.start(0f, 100f, 1_000, LINEAR);
+        animation.step(0);
+        animation.step(250_000_000L);
+
+        animation.mirror();
+
+        assertTrue(animation.isRunning());
+        assertEquals(-25f, animation.getValue(), 0.001f);
+        assertTrue(animation.step(500_000_000L));
+        assertEquals(-50f, animation.getValue(), 0.001f);
+        assertFalse(animation.step(1_000_000_000L));
+        assertEquals(-100f, animation.getValue(), 0f);
+    }
+
+    @Test
+    public void remainingNanos_coversTheUnplayedPart() {
+        SweepAnimation animation = new SweepAnimation();
+        animation.start(0f, 100f, 1_000, LINEAR);
+        assertEquals(1_000_000_000L, animation.getRemainingNanos(0));
+
+        animation.step(0);
+        assertEquals(600_000_000L, animation.getRemainingNanos(400_000_000L));
+
+        animation.cancel();
+        assertEquals(0, animation.getRemainingNanos(400_000_000L));
+    }
+
+    @Test
+    public void spring_settlesAtTarget() {
+        SweepAnimation animation = new SweepAnimation();
+        animation.springTo(0f, 180f, SPRING_STIFFNESS, 1f);
+
+        long frameTime = 0;
+        int frames = 0;
+        while (animation.step(frameTime) && frames < FRAME_COUNT) {
+            frameTime += FRAME_NANOS;
+            frames++;
+            // critically damped, so it never overshoots
+            assertTrue(animation.getValue() <= 180f);
+        }
+
+        assertFalse(animation.isRunning());
+        assertEquals(180f, animation.getValue(), 0f);
+        assertTrue("took " + frames + " frames", frames < 120);
+    }
+
+    @Test
+    public void springRetarget_keepsPositionAndVelocity() {
+        SweepAnimation animation = new SweepAnimation();
+        animation.springTo(0f, 360f, SPRING_STIFFNESS, 1f);
+        long frameTime = 0;
+        for (int i = 0; i < 10; i++) {
+            animation.step(frameTime);
+            frameTime += FRAME_NANOS;
+        }
+        float value = animation.getValue();
+        float velocity = animation.getVelocity();
+        assertTrue(velocity > 0);
+
+        // the from value is ignored while a spring runs
+        animation.springTo(0f, 90f, SPRING_STIFFNESS, 1f);
+        assertEquals(value, animation.getValue(), 0f);
+        assertEquals(velocity, animation.getVelocity(), 0f);
+
+        animation.step(frameTime);
+        // no jump: one frame later it has moved by about velocity * frame time
+        assertEquals(value + velocity * FRAME_NANOS / 1e9f, animation.getValue(), Math.abs(velocity) * .01f + 1f);
+    }
+
+    @Test
+    public void startAndStep_doNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        SweepAnimation animation = new SweepAnimation();
+        runFrames(animation);
+
+        long baselineStart = threads.getThreadAllocatedBytes(threadId);
+        long baselineEnd = threads.getThreadAllocatedBytes(threadId);
+        long measurementOverhead = baselineEnd - baselineStart;
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        float sum = runFrames(animation);
+        long after = threads.getThreadAllocatedBytes(threadId);
+
+        assertTrue(sum != 0f);
+        assertEquals(0, Math.max(0, after - before - measurementOverhead));
+    }
+
+    private static float runFrames(SweepAnimation animation) {
+        float sum = 0f;
+        long frameTime = 0;
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            if (i >= FRAME_COUNT / 2 && i % 50 == 0) {
+                // second half: a spring retargeted every 50 frames
+                animation.springTo(animation.getValue(), (i % 100 == 0) ? 0f : 270f, SPRING_STIFFNESS, .7f);
+            } else if (!animation.isRunning()) {
+                animation.start(animation.getValue(), (i % 2 == 0) ? 360f : 0f, 1_000, LINEAR);
+            }
+            animation.step(frameTime);
+            sum += animation.getValue();
+            frameTime += FRAME_NANOS;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.circularpb;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks through {@link ProgressBarMetrics} that sweep changes invalidate only the changed part
+ * of the ring, and nothing at all when no pixel changes.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SweepInvalidationTest {
+
+    private static final int SIZE_PX = 200;
+    private static final int ANIMATION_FRAMES = 61;
+
+    @Rule
+    public final FrameClockRule clock = new FrameClockRule();
+
+    private CircularProgressDrawable drawable;
+
+    @Before
+    public void setUp() {
+        drawable = new CircularProgressDrawable(new ProgressBarStyle.Builder(RuntimeEnvironment.getApplication().getResources())
+                .setAnimationEnabled(true)
+                .build());
+        drawable.setBounds(0, 0, SIZE_PX, SIZE_PX);
+        drawable.setMetricsEnabled(true);
+    }
+
+    @Test
+    public void animationFrames_invalidateAFractionOfTheBounds() {
+        drawable.setProgress(75, 100);
+
+        long boundsArea = (long) SIZE_PX * SIZE_PX;
+        long previousCount = 0;
+        for (int frame = 0; frame < ANIMATION_FRAMES; frame++) {
+            clock.doFrame();
+
+            ProgressBarMetrics metrics = drawable.getMetrics();
+            if (metrics.getPartialInvalidationCount() == previousCount) continue;
+            previousCount = metrics.getPartialInvalidationCount();
+            assertTrue("frame " + frame + " invalidated " + metrics.getLastInvalidatedArea() + " px²",
+                    metrics.getLastInvalidatedArea() < boundsArea / 4);
+        }
+
+        ProgressBarMetrics metrics = drawable.getMetrics();
+        assertFalse(drawable.isProgressAnimationRunning());
+        assertTrue(metrics.getPartialInvalidationCount() > ANIMATION_FRAMES / 2);
+        // a whole-bounds invalidation per frame would add up to the bounds area times the frames
+        assertTrue(metrics.getInvalidatedArea() < boundsArea * metrics.getPartialInvalidationCount() / 4);
+    }
+
+    @Test
+    public void segmentAnimations_areCountedAsCompletedOrCancelled() {
+        drawable.setSegments(new double[]{10, 20}, new int[]{0xFFFF0000, 0xFF0000FF});
+        drawable.setSegmentValue(0, 30);
+        drawable.setSegmentValue(1, 40);
+        clock.doFrames(ANIMATION_FRAMES);
+        assertEquals(2, drawable.getMetrics().getAnimationsCompleted());
+
+        drawable.setSegmentValue(0, 50);
+        drawable.setSegments(null, null);
+
+        ProgressBarMetrics metrics = drawable.getMetrics();
+        assertEquals(3, metrics.getAnimationsStarted());
+        assertEquals(1, metrics.getAnimationsCancelled());
+    }
+
+    @Test
+    public void subPixelSweepChange_isNotInvalidated() {
+        drawable.setAnimationEnabled(false);
+        drawable.setProgress(50, 100);
+        ProgressBarMetrics before = drawable.getMetrics();
+
+        // 0.036°, far below half a pixel of arc at this radius
+        drawable.setProgress(50.01, 100);
+
+        ProgressBarMetrics after = drawable.getMetrics();
+        assertEquals(before.getSkippedInvalidationCount() + 1, after.getSkippedInvalidationCount());
+        assertEquals(before.getInvalidatedArea(), after.getInvalidatedArea());
+        assertEquals(before.getInvalidationCount(), after.getInvalidationCount());
+    }
+
+    @Test
+    public void maxOnlyChange_isStillInvalidated() {
+        drawable.setAnimationEnabled(false);
+        drawable.setProgress(50, 100);
+        ProgressBarMetrics before = drawable.getMetrics();
+
+        // same sweep, but a value label now reads 100/200
+        drawable.setProgress(100, 200);
+
+        assertEquals(before.getInvalidationCount() + 1, drawable.getMetrics().getInvalidationCount());
+    }
+
+    @Test
+    public void invalidationCount_includesWholeBarInvalidations() {
+        drawable.setAnimationEnabled(false);
+        drawable.setTrackShape(TrackShapes.roundedSquare(.25f));
+        ProgressBarMetrics before = drawable.getMetrics();
+
+        // shaped tracks have no cheap partial bounds, every change repaints the whole bar
+        drawable.setProgress(40, 100);
+        drawable.setProgressColor(0xFF00FF00);
+
+        ProgressBarMetrics after = drawable.getMetrics();
+        assertEquals(before.getInvalidationCount() + 2, after.getInvalidationCount());
+        assertEquals(before.getPartialInvalidationCount(), after.getPartialInvalidationCount());
+    }
+}
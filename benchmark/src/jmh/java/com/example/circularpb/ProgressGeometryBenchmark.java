@@ -0,0 +1,60 @@
+package com.example.circularpb;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of the geometry behind calculateBounds, the dot placement and the dirty region.
+ */
+@State(Scope.Thread)
+public class ProgressGeometryBenchmark {
+
+    private static final float SIZE = 525f;
+    private static final float STROKE = 21f;
+    private static final float ANGLE_STEP = 1.37f;
+
+    private final ProgressGeometry geometry = new ProgressGeometry();
+    private final float[] bounds = new float[4];
+    private float angle;
+
+    @Benchmark
+    public float calculateBounds() {
+        ProgressGeometry.computeCircleBounds(0f, 0f, SIZE, SIZE, STROKE, bounds);
+        return bounds[ProgressGeometry.RIGHT];
+    }
+
+    /**
+     * Dot position through the cached endpoint and the sine table, with the angle changing on
+     * every call as it does during an animation.
+     */
+    @Benchmark
+    public float dotPosition() {
+        angle += ANGLE_STEP;
+        geometry.setCircle(SIZE / 2f, SIZE / 2f, (SIZE - STROKE) / 2f);
+        geometry.setEndAngle(270f + angle);
+        return geometry.getEndX() + geometry.getEndY();
+    }
+
+    /**
+     * Baseline for {@link #dotPosition()}: the Math.toRadians/cos/sin placement drawDot used
+     * before the lookup table.
+     */
+    @Benchmark
+    public float dotPositionWithMath() {
+        angle += ANGLE_STEP;
+        float radius = (SIZE - STROKE) / 2f;
+        double angleRadians = Math.toRadians(270f + angle + 180);
+        float x = SIZE / 2f - radius * (float) Math.cos(angleRadians);
+        float y = SIZE / 2f - radius * (float) Math.sin(angleRadians);
+        return x + y;
+    }
+
+    @Benchmark
+    public float dirtyArcBounds() {
+        angle += ANGLE_STEP;
+        ProgressGeometry.computeArcBounds(SIZE / 2f, SIZE / 2f, (SIZE - STROKE) / 2f,
+                270f + angle, 270f + angle + ANGLE_STEP * 3, bounds);
+        return bounds[ProgressGeometry.LEFT];
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.circularpb;
+
+import android.animation.TimeInterpolator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of the per call and per frame work of a progress animation.
+ */
+@State(Scope.Thread)
+public class SweepAnimationBenchmark {
+
+    private static final long FRAME_NANOS = 16_666_667L;
+    private static final int ANIMATION_DURATION = 1_000;
+    private static final double MAX_PROGRESS = 100.0;
+
+    // same curve as AccelerateDecelerateInterpolator, which needs a device to run
+    private static final TimeInterpolator ACCELERATE_DECELERATE = new TimeInterpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return (float) (Math.cos((input + 1) * Math.PI) / 2.0f) + 0.5f;
+        }
+    };
+
+    private final SweepAnimation animation = new SweepAnimation();
+    private long frameTimeNanos;
+    private double progress;
+
+    @Setup
+    public void setUp() {
+        animation.start(0f, 360f, ANIMATION_DURATION, ACCELERATE_DECELERATE);
+        animation.step(frameTimeNanos);
+    }
+
+    /**
+     * The work behind one setProgress call: progress to sweep conversion and restarting the
+     * reused animation from the current sweep.
+     */
+    @Benchmark
+    public float setProgress() {
+        progress = (progress + 7.5) % MAX_PROGRESS;
+        float finalAngle = ProgressGeometry.toSweepAngle(progress, MAX_PROGRESS, true);
+        animation.cancel();
+        animation.start(animation.getValue(), finalAngle, ANIMATION_DURATION, ACCELERATE_DECELERATE);
+        return finalAngle;
+    }
+
+    /**
+     * One animation frame: interpolation of the sweep angle.
+     */
+    @Benchmark
+    public float animationFrame() {
+        frameTimeNanos += FRAME_NANOS;
+        if (!animation.step(frameTimeNanos)) {
+            animation.start(animation.getValue(), -animation.getValue(), ANIMATION_DURATION, ACCELERATE_DECELERATE);
+        }
+        return animation.getValue();
+    }
+}